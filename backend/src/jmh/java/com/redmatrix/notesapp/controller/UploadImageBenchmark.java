@@ -0,0 +1,88 @@
+package com.redmatrix.notesapp.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.redmatrix.notesapp.service.ImageVariantService;
+import com.redmatrix.notesapp.service.UploadStore;
+
+/**
+ * Benchmarks the multipart save path of {@link NoteController#uploadImage}:
+ * validation, hashing while copying to a temp file and the move into the content-addressed store.
+ * With {@code distinct=false} every upload after the first is a duplicate (the re-pasted screenshot case);
+ * with {@code distinct=true} each upload has new content and is moved into place.
+ * Files are written to a temporary upload directory that is removed after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UploadImageBenchmark {
+
+    /**
+     * Upload size in bytes: a small icon, a typical screenshot and the 5MB limit.
+     */
+    @Param({"16384", "524288", "5242880"})
+    private int imageSize;
+
+    @Param({"false", "true"})
+    private boolean distinct;
+
+    private NoteController controller;
+    private MockMultipartFile file;
+    private byte[] bytes;
+    private long counter;
+    private Path uploadDir;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bytes = new byte[imageSize];
+        new Random(674).nextBytes(bytes);
+        file = new MockMultipartFile("image", "screenshot.png", "image/png", bytes);
+        controller = new NoteController();
+        // Variant generation runs in the background after the response; keep it out of the measurement
+        ReflectionTestUtils.setField(controller, "imageVariantService", Mockito.mock(ImageVariantService.class));
+    }
+
+    @Setup(Level.Iteration)
+    public void createUploadDir() throws IOException {
+        uploadDir = Files.createTempDirectory("upload-bench");
+        ReflectionTestUtils.setField(controller, "uploadStore", new UploadStore(uploadDir.toString()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteUploadDir() throws IOException {
+        try (Stream<Path> paths = Files.walk(uploadDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> uploadImage() {
+        if (distinct) {
+            // MockMultipartFile shares the array, so this changes the uploaded content
+            ByteBuffer.wrap(bytes).putLong(0, ++counter);
+        }
+        return controller.uploadImage(file);
+    }
+}
@@ -0,0 +1,40 @@
+package com.redmatrix.notesapp.entity;
+
+import java.util.Random;
+
+/**
+ * Generates note bodies that look like what the rich text editor produces
+ * (HTML paragraphs with some formatting and non-ASCII text).
+ */
+public final class BenchmarkContent {
+
+    private static final String[] WORDS = {
+        "note", "ledger", "cardano", "wallet", "hash", "meeting", "draft", "todo",
+        "review", "café", "résumé", "naïve", "update", "proof", "metadata", "entry"
+    };
+
+    private BenchmarkContent() {}
+
+    /**
+     * Build HTML content of exactly {@code length} characters using a fixed seed,
+     * so every run benchmarks the same input.
+     */
+    public static String html(int length) {
+        Random random = new Random(674);
+        StringBuilder sb = new StringBuilder(length + 64);
+        while (sb.length() < length) {
+            boolean bold = random.nextInt(8) == 0;
+            sb.append(bold ? "<p><strong>" : "<p>");
+            int words = 8 + random.nextInt(40);
+            for (int i = 0; i < words; i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            sb.append(bold ? ".</strong></p>\n" : ".</p>\n");
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+}
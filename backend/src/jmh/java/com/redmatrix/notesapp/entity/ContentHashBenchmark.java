@@ -0,0 +1,42 @@
+package com.redmatrix.notesapp.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks SHA-256 hashing of note content, computed the same way as the
+ * frontend's generateContentHash (UTF-8 bytes, lowercase hex digest).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContentHashBenchmark {
+
+    @Param({"1024", "65536", "1048576", "8388608"})
+    private int contentSize;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = BenchmarkContent.html(contentSize);
+    }
+
+    @Benchmark
+    public String sha256Hex() throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.redmatrix.notesapp.entity;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+
+/**
+ * Benchmarks Jackson (de)serialization of the entities returned by the REST API.
+ * The ObjectMapper is built the same way Spring Boot builds the one used by the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntitySerializationBenchmark {
+
+    /**
+     * Note content size in characters: a short note, a long note and a note with embedded images.
+     */
+    @Param({"1024", "65536", "1048576"})
+    private int contentSize;
+
+    private ObjectMapper objectMapper;
+    private Note note;
+    private String noteJson;
+    private TransactionVerification verification;
+    private String verificationJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        note = new Note("Benchmark note", BenchmarkContent.html(contentSize));
+        note.setId(42L);
+        note.setOwnerWallet("addr_test1qz2fxv2umyhttkxyxp8x0dlpdt3k6cwng5pxj3jhsydzer3jcu5d8ps7zex2k2xt3uqxgjqnnj83ws8lhrn648jjxtwq2ytjqp");
+        note.setLastTxHash("8f3b2c1d0e9f8a7b6c5d4e3f2a1b0c9d8e7f6a5b4c3d2e1f0a9b8c7d6e5f4a3b");
+        note.setContentHash("a39f92bf12c4a0f0d6e3b4b6c1f0e5d7a9b8c7d6e5f4a3b2c1d0e9f8a7b6c5d4");
+        note.setVerificationStatus("VERIFIED");
+        note.setCreatedAt(Instant.parse("2025-01-01T00:00:00Z").atOffset(ZoneOffset.UTC));
+        note.setUpdatedAt(Instant.parse("2025-01-02T00:00:00Z").atOffset(ZoneOffset.UTC));
+        noteJson = objectMapper.writeValueAsString(note);
+
+        verification = new TransactionVerification(42L, note.getLastTxHash(), note.getContentHash(), note.getOwnerWallet());
+        verification.setId(7L);
+        verification.setStatus(VerificationStatus.VERIFIED);
+        verification.setRetryCount(1);
+        verification.setBlockchainContentHash(note.getContentHash());
+        verification.setBlockchainAction("UPDATE");
+        verification.setHashMatch(true);
+        verification.setVerifiedAt(note.getUpdatedAt());
+        verification.setCreatedAt(note.getCreatedAt());
+        verification.setUpdatedAt(note.getUpdatedAt());
+        verificationJson = objectMapper.writeValueAsString(verification);
+    }
+
+    @Benchmark
+    public String serializeNote() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(note);
+    }
+
+    @Benchmark
+    public byte[] serializeNoteToBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(note);
+    }
+
+    @Benchmark
+    public Note deserializeNote() throws JsonProcessingException {
+        return objectMapper.readValue(noteJson, Note.class);
+    }
+
+    @Benchmark
+    public String serializeVerification() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(verification);
+    }
+
+    @Benchmark
+    public TransactionVerification deserializeVerification() throws JsonProcessingException {
+        return objectMapper.readValue(verificationJson, TransactionVerification.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.redmatrix.notesapp.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the parsing of Blockfrost metadata responses done for every verification attempt.
+ * The response shape mirrors /txs/{hash}/metadata: a list of labels where the note label (674)
+ * is usually not the first entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetadataExtractionBenchmark {
+
+    /**
+     * Number of unrelated labels placed before the note label.
+     */
+    @Param({"0", "4", "16"})
+    private int otherLabels;
+
+    private TransactionVerificationService service;
+    private List<Map<String, Object>> metadataList;
+    private Map<String, Object> noteMetadata;
+
+    @Setup
+    public void setUp() {
+        service = new TransactionVerificationService();
+        metadataList = new ArrayList<>();
+
+        for (int i = 0; i < otherLabels; i++) {
+            Map<String, Object> other = new LinkedHashMap<>();
+            other.put("label", String.valueOf(1000 + i));
+            other.put("json_metadata", Map.of("name", "label-" + i, "value", i));
+            metadataList.add(other);
+        }
+
+        noteMetadata = new LinkedHashMap<>();
+        noteMetadata.put("msg", List.of("UPDATE"));
+        noteMetadata.put("noteId", "12");
+        noteMetadata.put("contentHash", "a39f92bf12c4a0f0d6e3b4b6c1f0e5d7a9b8c7d6e5f4a3b2c1d0e9f8a7b6c5d4");
+        noteMetadata.put("owner", List.of("addr_test1qz2fxv2umyhttkxyxp8x0dlpdt3k6cwng5pxj3jhsydzer3jcu5d8ps7zex2k2xt3uqxgjqnnj83ws8lhrn648jjxtwq2ytjqp"));
+        noteMetadata.put("timestamp", "1731891234567");
+
+        Map<String, Object> note = new LinkedHashMap<>();
+        note.put("label", "674");
+        note.put("json_metadata", noteMetadata);
+        metadataList.add(note);
+    }
+
+    @Benchmark
+    public Map<String, Object> extractNoteMetadata() {
+        return service.extractNoteMetadata(metadataList);
+    }
+
+    @Benchmark
+    public void extractStringFromMetadata(Blackhole blackhole) {
+        blackhole.consume(service.extractStringFromMetadata(noteMetadata, "contentHash"));
+        blackhole.consume(service.extractStringFromMetadata(noteMetadata, "msg"));
+        blackhole.consume(service.extractStringFromMetadata(noteMetadata, "owner"));
+    }
+
+    @Benchmark
+    public void extractAll(Blackhole blackhole) {
+        Map<String, Object> metadata = service.extractNoteMetadata(metadataList);
+        blackhole.consume(service.extractStringFromMetadata(metadata, "contentHash"));
+        blackhole.consume(service.extractStringFromMetadata(metadata, "msg"));
+        blackhole.consume(service.extractStringFromMetadata(metadata, "owner"));
+    }
+}
@@ -0,0 +1,248 @@
+package com.redmatrix.notesapp.loadtest;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.redmatrix.notesapp.config.IdGeneratorInitializer;
+import com.redmatrix.notesapp.config.NoteChangeSequenceInitializer;
+import com.redmatrix.notesapp.entity.TransactionVerification;
+
+/**
+ * Fast synthetic data generator for the notes and transaction_verifications tables.
+ *
+ * <p>Rows are generated deterministically from a seed and written with JDBC batch inserts
+ * from several threads. Note content sizes follow a log-normal distribution (most notes are
+ * a few hundred characters to a few KB, with a long tail of image-heavy notes), and
+ * verifications are spread over statuses the way a long-running deployment looks:
+ * mostly VERIFIED, with a tail of FAILED, EXPIRED and still PENDING rows.
+ *
+ * <p>Against MySQL, add {@code rewriteBatchedStatements=true} to the JDBC URL so each batch
+ * is sent as a single multi-row INSERT.
+ */
+public class DatasetGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] WORDS = {
+        "meeting", "ledger", "cardano", "draft", "todo", "review", "wallet", "proof",
+        "invoice", "roadmap", "café", "résumé", "summary", "release", "budget", "notes"
+    };
+
+    /**
+     * Cumulative status distribution for generated verifications.
+     */
+    private static final String[] STATUSES = {"VERIFIED", "FAILED", "EXPIRED", "PENDING", "PROCESSING"};
+    private static final double[] STATUS_CUMULATIVE = {0.72, 0.82, 0.90, 0.99, 1.0};
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_CONTENT_LENGTH = 2 * 1024 * 1024;
+    private static final int WALLETS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long seed;
+    private final int threads;
+    private final String text;
+
+    public record Result(long notes, long verifications, long minNoteId, long maxNoteId, Duration elapsed) {}
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, long seed, int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.seed = seed;
+        this.threads = Math.max(1, threads);
+        this.text = buildText(new SplittableRandom(seed), MAX_CONTENT_LENGTH * 2);
+    }
+
+    /**
+     * Insert {@code notes} notes and {@code verifications} verifications spread over them.
+     */
+    public Result generate(long notes, long verifications) throws Exception {
+        long started = System.nanoTime();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        parallel(notes, "notes", (random, from, to) -> insertNotes(random, from, to, now));
+        // Put the new notes in the change feed
+        new NoteChangeSequenceInitializer(jdbcTemplate).alignChangeSequence();
+        Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM notes", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM notes", Long.class);
+        long minNoteId = minId == null ? 0 : minId;
+        long maxNoteId = maxId == null ? 0 : maxId;
+
+        if (maxNoteId > 0) {
+            long firstVerificationId = firstFreeVerificationId();
+            parallel(verifications, "verifications",
+                (random, from, to) -> insertVerifications(random, from, to, firstVerificationId, minNoteId, maxNoteId, now));
+            // Move the id generator past the rows written here
+            new IdGeneratorInitializer(jdbcTemplate).alignVerificationIds();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        logger.info("Generated {} notes and {} verifications in {} ms", notes, verifications, elapsed.toMillis());
+        return new Result(notes, verifications, minNoteId, maxNoteId, elapsed);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(SplittableRandom random, long from, long to);
+    }
+
+    private void parallel(long total, String table, ChunkWriter writer) throws Exception {
+        long chunk = Math.max(BATCH_SIZE, (total + threads - 1) / threads);
+        AtomicLong written = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long from = 0; from < total; from += chunk) {
+                long start = from;
+                long end = Math.min(total, from + chunk);
+                futures.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed ^ (start * 0x9E3779B97F4A7C15L) ^ table.hashCode());
+                    for (long batchStart = start; batchStart < end; batchStart += BATCH_SIZE) {
+                        long batchEnd = Math.min(end, batchStart + BATCH_SIZE);
+                        writer.write(random, batchStart, batchEnd);
+                        long done = written.addAndGet(batchEnd - batchStart);
+                        if (done % 100_000 < BATCH_SIZE) {
+                            logger.info("{}: {}/{} rows", table, done, total);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertNotes(SplittableRandom random, long from, long to, Instant now) {
+        List<Object[]> rows = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            Instant created = now.minusSeconds(random.nextLong(365L * 24 * 3600));
+            Instant updated = created.plusSeconds(random.nextLong(Math.max(1, now.getEpochSecond() - created.getEpochSecond())));
+            rows.add(new Object[] {
+                WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i,
+                content(random),
+                wallet(random),
+                Timestamp.from(created),
+                Timestamp.from(updated),
+                hex(i, random),
+                hex(i ^ 0x5DEECE66DL, random),
+                random.nextInt(10) < 7 ? "VERIFIED" : "UNVERIFIED"
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO notes (title, content, owner_wallet, created_at, updated_at, "
+            + "last_tx_hash, content_hash, verification_status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * First id above both existing rows and any block the id generator may already have handed out.
+     */
+    private long firstFreeVerificationId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM transaction_verifications", Long.class);
+        List<Long> nextValue = jdbcTemplate.queryForList("SELECT next_val FROM " + TransactionVerification.ID_GENERATOR_TABLE
+            + " WHERE name = ?", Long.class, TransactionVerification.ID_GENERATOR_KEY);
+        return Math.max(maxId == null ? 0 : maxId, nextValue.isEmpty() ? 0 : nextValue.get(0)) + 1;
+    }
+
+    private void insertVerifications(SplittableRandom random, long from, long to, long firstId, long minNoteId, long maxNoteId, Instant now) {
+        List<Object[]> rows = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            String status = status(random);
+            int maxRetries = 10;
+            int retryCount = switch (status) {
+                case "EXPIRED" -> maxRetries;
+                case "FAILED" -> 1 + random.nextInt(maxRetries - 1);
+                case "VERIFIED" -> random.nextInt(3);
+                default -> random.nextInt(2);
+            };
+            Instant created = now.minusSeconds(random.nextLong(365L * 24 * 3600));
+            Instant updated = created.plusSeconds(30L * (retryCount + 1));
+            boolean verified = "VERIFIED".equals(status);
+            String contentHash = hex(i ^ 0x2545F4914F6CDD1DL, random);
+            rows.add(new Object[] {
+                firstId + i,
+                random.nextLong(minNoteId, maxNoteId + 1),
+                hex(i, random),
+                contentHash,
+                wallet(random),
+                status,
+                retryCount,
+                maxRetries,
+                "FAILED".equals(status) || "EXPIRED".equals(status) ? "Transaction not found: simulated" : null,
+                verified ? Timestamp.from(updated) : null,
+                verified ? contentHash : null,
+                verified ? "UPDATE" : null,
+                verified ? Boolean.TRUE : null,
+                Timestamp.from(created),
+                Timestamp.from(updated)
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transaction_verifications (id, note_id, tx_hash, content_hash, owner_wallet, "
+            + "status, retry_count, max_retries, last_error, verified_at, blockchain_content_hash, blockchain_action, "
+            + "hash_match, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Log-normal content length with a median of about 1.2K characters, capped at 2M.
+     */
+    private String content(SplittableRandom random) {
+        double gaussian = gaussian(random);
+        int length = (int) Math.min(MAX_CONTENT_LENGTH, Math.max(40, Math.exp(Math.log(1200) + 1.1 * gaussian)));
+        int offset = random.nextInt(text.length() - length);
+        return text.substring(offset, offset + length);
+    }
+
+    private static String status(SplittableRandom random) {
+        double p = random.nextDouble();
+        for (int i = 0; i < STATUS_CUMULATIVE.length; i++) {
+            if (p < STATUS_CUMULATIVE[i]) {
+                return STATUSES[i];
+            }
+        }
+        return STATUSES[0];
+    }
+
+    private static String wallet(SplittableRandom random) {
+        return "addr_test1synthetic" + random.nextInt(WALLETS);
+    }
+
+    /**
+     * 64 hex characters, unique per {@code index}.
+     */
+    private static String hex(long index, SplittableRandom random) {
+        return String.format("%016x%016x%016x%016x", index, random.nextLong(), random.nextLong(), random.nextLong());
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static String buildText(SplittableRandom random, int length) {
+        StringBuilder sb = new StringBuilder(length + 64);
+        while (sb.length() < length) {
+            sb.append("<p>");
+            int words = 8 + random.nextInt(40);
+            for (int i = 0; i < words; i++) {
+                sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            sb.append("</p>");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.redmatrix.notesapp.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histogram and error counters for one endpoint during one load stage.
+ * Latencies are recorded in microseconds.
+ */
+public class EndpointStats {
+
+    private final String endpoint;
+    private final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> errorsByCause = new ConcurrentHashMap<>();
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void recordSuccess(long latencyMicros) {
+        latency.recordValue(Math.min(latencyMicros, latency.getHighestTrackableValue()));
+        requests.increment();
+    }
+
+    public void recordError(long latencyMicros, String cause) {
+        recordSuccess(latencyMicros);
+        errors.increment();
+        errorsByCause.computeIfAbsent(cause, key -> new LongAdder()).increment();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double getErrorRate() {
+        long total = getRequests();
+        return total == 0 ? 0.0 : (double) getErrors() / total;
+    }
+
+    public Map<String, LongAdder> getErrorsByCause() {
+        return errorsByCause;
+    }
+}
@@ -0,0 +1,124 @@
+package com.redmatrix.notesapp.loadtest;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load generator: a fixed number of workers repeatedly pick a weighted
+ * operation, execute it and record its latency and outcome.
+ */
+public class LoadDriver {
+
+    /**
+     * A single API call. Returns null when the operation has nothing to do
+     * (for example a delete with no created notes left) and should not be recorded.
+     */
+    @FunctionalInterface
+    public interface Call {
+        HttpResponse<String> execute(ThreadLocalRandom random) throws Exception;
+    }
+
+    /**
+     * @param notFoundExpected whether a 404 is a normal answer for this call
+     *                         (for example looking up the latest verification of a note that has none)
+     */
+    public record Operation(String endpoint, int weight, boolean notFoundExpected, Call call) {
+
+        public Operation(String endpoint, int weight, Call call) {
+            this(endpoint, weight, false, call);
+        }
+    }
+
+    public record StageResult(int concurrency, Duration duration, Map<String, EndpointStats> stats) {
+
+        public long totalRequests() {
+            return stats.values().stream().mapToLong(EndpointStats::getRequests).sum();
+        }
+
+        public long totalErrors() {
+            return stats.values().stream().mapToLong(EndpointStats::getErrors).sum();
+        }
+
+        public double throughput() {
+            return totalRequests() / (duration.toMillis() / 1000.0);
+        }
+    }
+
+    private final List<Operation> operations;
+    private final int totalWeight;
+
+    public LoadDriver(List<Operation> operations) {
+        this.operations = new ArrayList<>(operations);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+    }
+
+    /**
+     * Run the operation mix with {@code concurrency} workers for {@code duration}.
+     */
+    public StageResult runStage(int concurrency, Duration duration) throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (Operation operation : operations) {
+            stats.putIfAbsent(operation.endpoint(), new EndpointStats(operation.endpoint()));
+        }
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    Operation operation = pick(random);
+                    execute(operation, stats.get(operation.endpoint()), random);
+                }
+            });
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(duration.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        return new StageResult(concurrency, elapsed, stats);
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private void execute(Operation operation, EndpointStats stats, ThreadLocalRandom random) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = operation.call().execute(random);
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            if (response == null) {
+                return;
+            }
+            boolean expectedNotFound = response.statusCode() == 404 && operation.notFoundExpected();
+            if (response.statusCode() >= 400 && !expectedNotFound) {
+                stats.recordError(micros, "HTTP " + response.statusCode());
+            } else {
+                stats.recordSuccess(micros);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            stats.recordError(micros, e.getClass().getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.redmatrix.notesapp.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Writes load test results: a summary table on the console, one CSV row per
+ * stage and endpoint, and an HdrHistogram percentile distribution (.hgrm) per
+ * stage and endpoint that can be plotted or diffed between runs.
+ */
+public class LoadTestReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Path outputDir;
+
+    public LoadTestReport(Path outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    public void write(String name, List<LoadDriver.StageResult> stages) throws IOException {
+        Files.createDirectories(outputDir);
+        printSummary(name, stages, System.out);
+        writeCsv(outputDir.resolve(name + ".csv"), stages);
+        for (LoadDriver.StageResult stage : stages) {
+            for (EndpointStats stats : stage.stats().values()) {
+                if (stats.getRequests() == 0) {
+                    continue;
+                }
+                Path file = outputDir.resolve(String.format("%s-c%d-%s.hgrm", name, stage.concurrency(), fileName(stats.getEndpoint())));
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+                    stats.getLatency().outputPercentileDistribution(out, MICROS_PER_MILLI);
+                }
+            }
+        }
+    }
+
+    private void printSummary(String name, List<LoadDriver.StageResult> stages, PrintStream out) {
+        out.println();
+        out.println("=== Load test: " + name + " ===");
+        out.printf(Locale.ROOT, "%-6s %10s %8s%n", "conc", "req/s", "errors");
+        for (LoadDriver.StageResult stage : stages) {
+            out.printf(Locale.ROOT, "%-6d %10.1f %7.2f%%%n",
+                stage.concurrency(), stage.throughput(), percent(stage.totalErrors(), stage.totalRequests()));
+        }
+        for (LoadDriver.StageResult stage : stages) {
+            out.println();
+            out.printf(Locale.ROOT, "--- concurrency %d (%.1fs) ---%n", stage.concurrency(), stage.duration().toMillis() / 1000.0);
+            out.printf(Locale.ROOT, "%-40s %8s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+            for (EndpointStats stats : stage.stats().values()) {
+                Histogram h = stats.getLatency();
+                out.printf(Locale.ROOT, "%-40s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%%n",
+                    stats.getEndpoint(),
+                    stats.getRequests(),
+                    stats.getRequests() / (stage.duration().toMillis() / 1000.0),
+                    h.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                    h.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                    h.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                    h.getMaxValue() / MICROS_PER_MILLI,
+                    stats.getErrorRate() * 100);
+                if (stats.getErrors() > 0) {
+                    out.println("    errors: " + stats.getErrorsByCause().entrySet().stream()
+                        .map(e -> e.getKey() + "=" + e.getValue().sum())
+                        .collect(Collectors.joining(", ")));
+                }
+            }
+        }
+        out.println();
+    }
+
+    private void writeCsv(Path file, List<LoadDriver.StageResult> stages) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("concurrency,endpoint,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            for (LoadDriver.StageResult stage : stages) {
+                double seconds = stage.duration().toMillis() / 1000.0;
+                for (EndpointStats stats : stage.stats().values()) {
+                    Histogram h = stats.getLatency();
+                    out.printf(Locale.ROOT, "%d,%s,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        stage.concurrency(), stats.getEndpoint(), stats.getRequests(), stats.getErrors(),
+                        stats.getRequests() / seconds,
+                        h.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                        h.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                        h.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                        h.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                        h.getMaxValue() / MICROS_PER_MILLI);
+                }
+            }
+        }
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0.0 : part * 100.0 / total;
+    }
+
+    private static String fileName(String endpoint) {
+        return endpoint.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+    }
+}
@@ -0,0 +1,153 @@
+package com.redmatrix.notesapp.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * End-to-end load test: boots the application on a random port against H2 (MySQL mode),
+ * seeds a synthetic dataset with {@link DatasetGenerator} and drives a realistic mix of note CRUD, search, upload and
+ * verification polling traffic at increasing concurrency levels.
+ *
+ * <p>Metrics export stays enabled (as in production) so instrumentation overhead is part of the measurement.
+ *
+ * <p>Each stage reports throughput, latency percentiles and error rates per endpoint,
+ * which makes the knee of the throughput/latency curve visible.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("loadtest")
+class NotesApiLoadTest {
+
+    private static final String[] WORDS = {"meeting", "ledger", "cardano", "draft", "todo", "review", "wallet", "proof"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Queue<Long> createdNoteIds = new ConcurrentLinkedQueue<>();
+    private long minNoteId;
+    private long maxNoteId;
+
+    @Test
+    void notesAndVerificationsMix() throws Exception {
+        int notes = Integer.getInteger("loadtest.notes", 2000);
+        int[] concurrency = Arrays.stream(System.getProperty("loadtest.concurrency", "1,4,16,32").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        Duration stageDuration = Duration.ofSeconds(Long.getLong("loadtest.stage-seconds", 10));
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+
+        DatasetGenerator.Result dataset = new DatasetGenerator(jdbcTemplate, 674, 4).generate(notes, notes * 2L);
+        minNoteId = dataset.minNoteId();
+        maxNoteId = dataset.maxNoteId();
+
+        ApiClient client = new ApiClient("http://localhost:" + port);
+        LoadDriver driver = new LoadDriver(operations(client));
+
+        // Warm up the JIT, connection pools and Hibernate caches before measuring.
+        driver.runStage(Math.max(1, concurrency[0]), Duration.ofSeconds(3));
+
+        List<LoadDriver.StageResult> results = new ArrayList<>();
+        for (int level : concurrency) {
+            results.add(driver.runStage(level, stageDuration));
+        }
+
+        new LoadTestReport(Path.of("target", "loadtest")).write("notes-api", results);
+
+        for (LoadDriver.StageResult result : results) {
+            double errorRate = result.totalRequests() == 0 ? 0 : (double) result.totalErrors() / result.totalRequests();
+            assertTrue(errorRate <= maxErrorRate,
+                "Error rate " + errorRate + " at concurrency " + result.concurrency() + " exceeds " + maxErrorRate);
+        }
+    }
+
+    private List<LoadDriver.Operation> operations(ApiClient client) {
+        byte[] image = new byte[64 * 1024];
+        ThreadLocalRandom.current().nextBytes(image);
+
+        return List.of(
+            new LoadDriver.Operation("GET /api/notes", 10, random -> client.get("/api/notes")),
+            new LoadDriver.Operation("GET /api/notes/{id}", 30, random -> client.get("/api/notes/" + randomNoteId(random))),
+            new LoadDriver.Operation("GET /api/notes/search", 8,
+                random -> client.get("/api/notes/search?q=" + WORDS[random.nextInt(WORDS.length)])),
+            new LoadDriver.Operation("POST /api/notes", 8, random -> {
+                HttpResponse<String> response = client.postJson("/api/notes", noteJson(random));
+                if (response.statusCode() == 201) {
+                    createdNoteIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+                }
+                return response;
+            }),
+            new LoadDriver.Operation("PUT /api/notes/{id}", 8,
+                random -> client.putJson("/api/notes/" + randomNoteId(random), noteJson(random))),
+            new LoadDriver.Operation("DELETE /api/notes/{id}", 3, random -> {
+                Long id = createdNoteIds.poll();
+                return id == null ? null : client.delete("/api/notes/" + id);
+            }),
+            new LoadDriver.Operation("POST /api/notes/upload", 2,
+                random -> client.postMultipart("/api/notes/upload", "image", "screenshot.png", "image/png", image)),
+            new LoadDriver.Operation("GET /api/verifications/note/{id}/latest", 20, true,
+                random -> client.get("/api/verifications/note/" + randomNoteId(random) + "/latest")),
+            new LoadDriver.Operation("GET /api/verifications/stats", 4, random -> client.get("/api/verifications/stats")),
+            new LoadDriver.Operation("POST /api/verifications", 4, random -> {
+                ObjectNode request = objectMapper.createObjectNode();
+                request.put("noteId", randomNoteId(random));
+                request.put("txHash", UUID.randomUUID().toString().replace("-", ""));
+                request.put("contentHash", UUID.randomUUID().toString().replace("-", ""));
+                request.put("ownerWallet", "addr_test1loadtest");
+                return client.postJson("/api/verifications", request.toString());
+            }),
+            new LoadDriver.Operation("GET /api/verifications/worker/status", 3,
+                random -> client.get("/api/verifications/worker/status")),
+            new LoadDriver.Operation("GET /actuator/prometheus", 1, random -> client.get("/actuator/prometheus")));
+    }
+
+    private long randomNoteId(ThreadLocalRandom random) {
+        return random.nextLong(minNoteId, maxNoteId + 1);
+    }
+
+    private String noteJson(ThreadLocalRandom random) {
+        ObjectNode note = objectMapper.createObjectNode();
+        note.put("title", "Load " + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(100_000));
+        note.put("content", content(random, 200 + random.nextInt(4000)));
+        note.put("ownerWallet", "addr_test1loadtest");
+        note.put("contentHash", UUID.randomUUID().toString().replace("-", ""));
+        note.put("lastTxHash", UUID.randomUUID().toString().replace("-", ""));
+        return note.toString();
+    }
+
+    private static String content(ThreadLocalRandom random, int length) {
+        StringBuilder sb = new StringBuilder(length + 16);
+        sb.append("<p>");
+        while (sb.length() < length) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return sb.append("</p>").toString();
+    }
+}
@@ -0,0 +1,258 @@
+package com.redmatrix.notesapp.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+import com.redmatrix.notesapp.repository.NoteRepository;
+import com.redmatrix.notesapp.repository.TransactionVerificationRepository;
+
+/**
+ * Times every derived and {@code @Query} method of {@link NoteRepository} and
+ * {@link TransactionVerificationRepository} against a large synthetic dataset and captures
+ * the EXPLAIN plan of the SQL Hibernate generates for each of them.
+ *
+ * <p>Defaults are sized for the in-memory H2 database. For realistic numbers point the
+ * profile at a scratch MySQL database and scale the dataset up, for example:
+ * <pre>
+ * mvn -Ploadtest test -Dtest=RepositoryQueryBenchmark \
+ *   -Dspring.datasource.url="jdbc:mysql://localhost:3306/notes_bench?rewriteBatchedStatements=true" \
+ *   -Dspring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver \
+ *   -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect \
+ *   -Dspring.datasource.username=root -Dspring.datasource.password=root \
+ *   -Ddataset.notes=2000000 -Ddataset.verifications=5000000
+ * </pre>
+ * Methods whose result grows with the table (for example {@code findAllByOrderByUpdatedAtDesc})
+ * are skipped above {@code querybench.unbounded-row-limit} rows, and reported as such.
+ */
+@SpringBootTest
+@ActiveProfiles("loadtest")
+class RepositoryQueryBenchmark {
+
+    private record QueryCase(String name, boolean unbounded, List<Object> parameters, Callable<?> call) {}
+
+    private record QueryResult(String name, String outcome, long resultSize, Histogram latency, List<String> sql, List<String> plan) {}
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TransactionVerificationRepository verificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkRepositoryQueries() throws Exception {
+        long notes = Long.getLong("dataset.notes", 20_000);
+        long verifications = Long.getLong("dataset.verifications", 60_000);
+        int threads = Integer.getInteger("dataset.threads", 4);
+        int iterations = Integer.getInteger("querybench.iterations", 20);
+        long unboundedRowLimit = Long.getLong("querybench.unbounded-row-limit", 200_000);
+
+        DatasetGenerator.Result dataset = new DatasetGenerator(jdbcTemplate, 674, threads).generate(notes, verifications);
+
+        long noteId = (dataset.minNoteId() + dataset.maxNoteId()) / 2;
+        String txHash = jdbcTemplate.queryForObject(
+            "SELECT tx_hash FROM transaction_verifications ORDER BY id LIMIT 1 OFFSET ?", String.class, verifications / 2);
+        String wallet = "addr_test1synthetic42";
+        LocalDate today = LocalDate.now();
+
+        List<QueryCase> cases = List.of(
+            new QueryCase("NoteRepository.findByTitleContainingIgnoreCase", true, List.of("%ledger%"),
+                () -> noteRepository.findByTitleContainingIgnoreCase("ledger")),
+            new QueryCase("NoteRepository.findByContentContainingIgnoreCase", true, List.of("%roadmap budget%"),
+                () -> noteRepository.findByContentContainingIgnoreCase("roadmap budget")),
+            new QueryCase("NoteRepository.searchNotes", true, List.of("ledger", "ledger"),
+                () -> noteRepository.searchNotes("ledger")),
+            new QueryCase("NoteRepository.findAllByOrderByUpdatedAtDesc", true, List.of(),
+                () -> noteRepository.findAllByOrderByUpdatedAtDesc()),
+            new QueryCase("NoteRepository.findByCreatedAt", false, List.of(today),
+                () -> noteRepository.findByCreatedAt(today)),
+            new QueryCase("NoteRepository.countAllNotes", false, List.of(),
+                () -> noteRepository.countAllNotes()),
+            new QueryCase("NoteRepository.findRecentNotes", true, List.of(today.minusDays(7)),
+                () -> noteRepository.findRecentNotes(today.minusDays(7))),
+            new QueryCase("NoteRepository.findById", false, List.of(noteId),
+                () -> noteRepository.findById(noteId)),
+            new QueryCase("TransactionVerificationRepository.findByStatus(PENDING)", true, List.of("PENDING"),
+                () -> verificationRepository.findByStatus(VerificationStatus.PENDING)),
+            new QueryCase("TransactionVerificationRepository.findPendingVerifications", true, List.of("PENDING"),
+                () -> verificationRepository.findPendingVerifications(VerificationStatus.PENDING)),
+            new QueryCase("TransactionVerificationRepository.findByNoteIdOrderByCreatedAtDesc", false, List.of(noteId),
+                () -> verificationRepository.findByNoteIdOrderByCreatedAtDesc(noteId)),
+            new QueryCase("TransactionVerificationRepository.findFirstByNoteIdOrderByCreatedAtDesc", false, List.of(noteId, 1),
+                () -> verificationRepository.findFirstByNoteIdOrderByCreatedAtDesc(noteId)),
+            new QueryCase("TransactionVerificationRepository.findByTxHash", false, List.of(txHash),
+                () -> verificationRepository.findByTxHash(txHash)),
+            new QueryCase("TransactionVerificationRepository.existsByTxHash", false, List.of(txHash, 1),
+                () -> verificationRepository.existsByTxHash(txHash)),
+            new QueryCase("TransactionVerificationRepository.findByOwnerWalletOrderByCreatedAtDesc", false, List.of(wallet),
+                () -> verificationRepository.findByOwnerWalletOrderByCreatedAtDesc(wallet)),
+            new QueryCase("TransactionVerificationRepository.countByStatus", false, List.of("VERIFIED"),
+                () -> verificationRepository.countByStatus(VerificationStatus.VERIFIED)),
+            new QueryCase("TransactionVerificationRepository.findVerificationsNeedingRetry", true, List.of(),
+                () -> verificationRepository.findVerificationsNeedingRetry()),
+            new QueryCase("TransactionVerificationRepository.findExpiredVerifications", true, List.of(),
+                () -> verificationRepository.findExpiredVerifications()),
+            new QueryCase("TransactionVerificationRepository.getVerificationStatistics", false, List.of(),
+                () -> verificationRepository.getVerificationStatistics()),
+            new QueryCase("TransactionVerificationRepository.findRecentVerifications", false, List.of(50),
+                () -> verificationRepository.findRecentVerifications(50)),
+            new QueryCase("TransactionVerificationRepository.count", false, List.of(),
+                () -> verificationRepository.count()));
+
+        long largestTable = Math.max(notes, verifications);
+        List<QueryResult> results = new ArrayList<>();
+        for (QueryCase queryCase : cases) {
+            if (queryCase.unbounded() && largestTable > unboundedRowLimit) {
+                results.add(new QueryResult(queryCase.name(), "SKIPPED (result grows with table, over " + unboundedRowLimit + " rows)",
+                    -1, null, List.of(), List.of()));
+                continue;
+            }
+            results.add(run(queryCase, iterations));
+        }
+
+        writeReport(dataset, iterations, results);
+    }
+
+    private QueryResult run(QueryCase queryCase, int iterations) {
+        Histogram latency = new Histogram(TimeUnit.MINUTES.toMicros(10), 3);
+        long resultSize = 0;
+        List<String> sql;
+        try {
+            CapturingStatementInspector.start();
+            try {
+                resultSize = size(queryCase.call().call());
+            } finally {
+                sql = CapturingStatementInspector.stop();
+            }
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                queryCase.call().call();
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+        } catch (Exception e) {
+            return new QueryResult(queryCase.name(), "FAILED: " + rootMessage(e), -1, null, List.of(), List.of());
+        }
+        List<String> plan = sql.isEmpty() ? List.of() : explain(sql.get(0), queryCase.parameters());
+        return new QueryResult(queryCase.name(), "OK", resultSize, latency, sql, plan);
+    }
+
+    private List<String> explain(String sql, List<Object> parameters) {
+        long placeholders = sql.chars().filter(c -> c == '?').count();
+        if (placeholders != parameters.size()) {
+            return List.of("(not explained: statement has " + placeholders + " parameters, benchmark supplied " + parameters.size() + ")");
+        }
+        try {
+            return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement ps) -> {
+                for (int i = 0; i < parameters.size(); i++) {
+                    ps.setObject(i + 1, parameters.get(i));
+                }
+                List<String> rows = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        rows.add(formatRow(rs, meta));
+                    }
+                }
+                return rows;
+            });
+        } catch (RuntimeException e) {
+            return List.of("(EXPLAIN failed: " + rootMessage(e) + ")");
+        }
+    }
+
+    private static String formatRow(ResultSet rs, ResultSetMetaData meta) throws SQLException {
+        if (meta.getColumnCount() == 1) {
+            return String.valueOf(rs.getObject(1));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int c = 1; c <= meta.getColumnCount(); c++) {
+            if (c > 1) {
+                sb.append(" | ");
+            }
+            sb.append(meta.getColumnLabel(c)).append('=').append(rs.getObject(c));
+        }
+        return sb.toString();
+    }
+
+    private static long size(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return result == null ? 0 : 1;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName() + ": " + root.getMessage();
+    }
+
+    private void writeReport(DatasetGenerator.Result dataset, int iterations, List<QueryResult> results) throws IOException {
+        Path dir = Path.of("target", "loadtest");
+        Files.createDirectories(dir);
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "=== Repository queries: %d notes, %d verifications, %d iterations (dataset generated in %d ms) ===%n",
+            dataset.notes(), dataset.verifications(), iterations, dataset.elapsed().toMillis());
+        System.out.printf(Locale.ROOT, "%-72s %9s %9s %9s %9s  %s%n", "method", "rows", "p50 ms", "p99 ms", "max ms", "");
+
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(dir.resolve("repository-queries.csv"), StandardCharsets.UTF_8));
+             PrintWriter plans = new PrintWriter(Files.newBufferedWriter(dir.resolve("repository-queries-explain.txt"), StandardCharsets.UTF_8))) {
+            csv.println("notes,verifications,method,outcome,rows,p50_ms,p99_ms,mean_ms,max_ms");
+            for (QueryResult result : results) {
+                Histogram h = result.latency();
+                if (h == null) {
+                    System.out.printf(Locale.ROOT, "%-72s %s%n", result.name(), result.outcome());
+                    csv.printf(Locale.ROOT, "%d,%d,%s,\"%s\",,,,,%n", dataset.notes(), dataset.verifications(), result.name(),
+                        result.outcome().replace("\"", "'"));
+                } else {
+                    System.out.printf(Locale.ROOT, "%-72s %9d %9.2f %9.2f %9.2f%n", result.name(), result.resultSize(),
+                        h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0, h.getMaxValue() / 1000.0);
+                    csv.printf(Locale.ROOT, "%d,%d,%s,%s,%d,%.3f,%.3f,%.3f,%.3f%n", dataset.notes(), dataset.verifications(),
+                        result.name(), result.outcome(), result.resultSize(), h.getValueAtPercentile(50) / 1000.0,
+                        h.getValueAtPercentile(99) / 1000.0, h.getMean() / 1000.0, h.getMaxValue() / 1000.0);
+                }
+
+                plans.println("== " + result.name() + " [" + result.outcome() + "]");
+                result.sql().forEach(statement -> plans.println("SQL: " + statement));
+                result.plan().forEach(row -> plans.println("    " + row));
+                plans.println();
+            }
+        }
+        System.out.println("EXPLAIN plans written to " + dir.resolve("repository-queries-explain.txt").toAbsolutePath());
+        System.out.println();
+    }
+}
@@ -0,0 +1,173 @@
+package com.redmatrix.notesapp.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.sun.net.httpserver.HttpServer;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Compares platform and virtual thread request handling when Blockfrost is slow: a stub
+ * Blockfrost answers every call after {@code loadtest.blockfrost-delay-ms}, and the mix
+ * proxies metadata lookups through {@code /api/blockfrost} next to ordinary note reads.
+ *
+ * <p>Run once per mode with {@code -Dspring.threads.virtual.enabled=true} and {@code =false};
+ * the report is named after the mode. With platform threads, concurrency beyond Tomcat's
+ * 200 threads queues every request behind the slow calls.
+ *
+ * <p>While the stages run, JFR {@code jdk.VirtualThreadPinned} events (a virtual thread
+ * blocking while pinned to its carrier, e.g. inside {@code synchronized}) are counted by
+ * top application frame and printed with the report.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "blockfrost.project.id=loadtest")
+@AutoConfigureObservability
+@ActiveProfiles("loadtest")
+class SlowBlockfrostLoadTest {
+
+    private static HttpServer blockfrost;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private long minNoteId;
+    private long maxNoteId;
+
+    @DynamicPropertySource
+    static void blockfrostStub(DynamicPropertyRegistry registry) throws IOException {
+        long delay = Long.getLong("loadtest.blockfrost-delay-ms", 250);
+        byte[] body = "[{\"label\":\"674\",\"json_metadata\":{\"msg\":[\"loadtest\"]}}]".getBytes(StandardCharsets.UTF_8);
+        blockfrost = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        // Never the bottleneck, and on platform threads so it behaves the same in both modes
+        blockfrost.setExecutor(Executors.newCachedThreadPool());
+        blockfrost.createContext("/", exchange -> {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        blockfrost.start();
+        registry.add("blockfrost.api.url", () -> "http://127.0.0.1:" + blockfrost.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopBlockfrostStub() {
+        blockfrost.stop(0);
+    }
+
+    @Test
+    void slowBlockfrostMix() throws Exception {
+        int notes = Integer.getInteger("loadtest.notes", 2000);
+        int[] concurrency = Arrays.stream(System.getProperty("loadtest.concurrency", "50,200,400").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        Duration stageDuration = Duration.ofSeconds(Long.getLong("loadtest.stage-seconds", 10));
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+
+        DatasetGenerator.Result dataset = new DatasetGenerator(jdbcTemplate, 674, 4).generate(notes, notes);
+        minNoteId = dataset.minNoteId();
+        maxNoteId = dataset.maxNoteId();
+
+        ApiClient client = new ApiClient("http://localhost:" + port);
+        LoadDriver driver = new LoadDriver(operations(client));
+        driver.runStage(Math.max(1, concurrency[0]), Duration.ofSeconds(3));
+
+        Map<String, LongAdder> pinned = new ConcurrentHashMap<>();
+        List<LoadDriver.StageResult> results = new ArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned",
+                event -> pinned.computeIfAbsent(topApplicationFrame(event.getStackTrace() == null
+                    ? List.of() : event.getStackTrace().getFrames()), k -> new LongAdder()).increment());
+            recording.startAsync();
+            for (int level : concurrency) {
+                results.add(driver.runStage(level, stageDuration));
+            }
+        }
+
+        String mode = virtualThreads ? "virtual" : "platform";
+        new LoadTestReport(Path.of("target", "loadtest")).write("slow-blockfrost-" + mode, results);
+        System.out.printf(Locale.ROOT, "Pinned virtual threads (>= 1 ms): %d%n",
+            pinned.values().stream().mapToLong(LongAdder::sum).sum());
+        pinned.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+            .limit(10)
+            .forEach(e -> System.out.printf(Locale.ROOT, "  %6d  %s%n", e.getValue().sum(), e.getKey()));
+
+        for (LoadDriver.StageResult result : results) {
+            double errorRate = result.totalRequests() == 0 ? 0 : (double) result.totalErrors() / result.totalRequests();
+            assertTrue(errorRate <= maxErrorRate,
+                "Error rate " + errorRate + " at concurrency " + result.concurrency() + " exceeds " + maxErrorRate);
+        }
+    }
+
+    private List<LoadDriver.Operation> operations(ApiClient client) {
+        return List.of(
+            new LoadDriver.Operation("GET /api/blockfrost/txs/{hash}/metadata", 50,
+                random -> client.get("/api/blockfrost/txs/" + randomTxHash() + "/metadata")),
+            new LoadDriver.Operation("GET /api/notes/{id}", 40, random -> client.get("/api/notes/" + randomNoteId(random))),
+            new LoadDriver.Operation("GET /api/verifications/note/{id}/latest", 10, true,
+                random -> client.get("/api/verifications/note/" + randomNoteId(random) + "/latest")));
+    }
+
+    private static String randomTxHash() {
+        return (UUID.randomUUID().toString() + UUID.randomUUID()).replace("-", "");
+    }
+
+    private long randomNoteId(ThreadLocalRandom random) {
+        return random.nextLong(minNoteId, maxNoteId + 1);
+    }
+
+    // First frame outside the JDK, which is usually where the pinning monitor was taken
+    private static String topApplicationFrame(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return frames.isEmpty() ? "(no stack trace)" : frames.get(0).getMethod().getType().getName();
+    }
+}
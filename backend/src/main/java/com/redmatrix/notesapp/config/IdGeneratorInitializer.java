@@ -0,0 +1,59 @@
+package com.redmatrix.notesapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.redmatrix.notesapp.entity.TransactionVerification;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Makes sure the table-based id generator of TransactionVerification starts above
+ * every id already in use, including rows created by AUTO_INCREMENT before the
+ * generator was introduced and rows moved to the archive table.
+ *
+ * Runs once the schema is in place and before anything inserts verifications.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignVerificationIds() {
+        Long maxId = jdbcTemplate.queryForObject(
+            "SELECT GREATEST(COALESCE((SELECT MAX(id) FROM transaction_verifications), 0), "
+                + "COALESCE((SELECT MAX(id) FROM transaction_verifications_archive), 0))", Long.class);
+        // The pooled optimizer hands out the block below the stored value, so leave one full block of headroom
+        long nextValue = (maxId == null ? 0 : maxId) + TransactionVerification.ID_ALLOCATION_SIZE + 1;
+
+        String table = TransactionVerification.ID_GENERATOR_TABLE;
+        String key = TransactionVerification.ID_GENERATOR_KEY;
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE name = ?", Integer.class, key);
+        if (rows == null || rows == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO " + table + " (name, next_val) VALUES (?, ?)", key, nextValue);
+                logger.info("Initialized verification id generator at {}", nextValue);
+                return;
+            } catch (DuplicateKeyException e) {
+                // Another node created the row first, fall through to the update
+            }
+        }
+        int updated = jdbcTemplate.update("UPDATE " + table + " SET next_val = ? WHERE name = ? AND next_val < ?",
+            nextValue, key, nextValue);
+        if (updated > 0) {
+            logger.info("Moved verification id generator up to {} to clear existing ids", nextValue);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.redmatrix.notesapp.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.redmatrix.notesapp.entity.NoteChangeCounter;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Prepares the note change feed: gives notes written without a change sequence (before
+ * the feed existed, or by bulk loads) one above every value handed out, and makes sure
+ * the counters exist with the sequence above every value already in use.
+ *
+ * Runs once the schema is in place and before anything writes notes.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class NoteChangeSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteChangeSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NoteChangeSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignChangeSequence() {
+        // Numbered after every change handed out so far, so clients that already synced pick them up
+        List<Long> counter = jdbcTemplate.queryForList("SELECT counter_value FROM note_change_counters WHERE name = ?",
+            Long.class, NoteChangeCounter.SEQUENCE);
+        long base = counter.isEmpty() ? 0 : counter.get(0);
+        int backfilled = jdbcTemplate.update("UPDATE notes SET change_seq = id + ? WHERE change_seq IS NULL", base);
+        if (backfilled > 0) {
+            logger.info("Assigned a change sequence to {} existing notes", backfilled);
+        }
+
+        Long maxSeq = jdbcTemplate.queryForObject(
+            "SELECT GREATEST(COALESCE((SELECT MAX(change_seq) FROM notes), 0), "
+                + "COALESCE((SELECT MAX(change_seq) FROM note_tombstones), 0))", Long.class);
+        long current = maxSeq == null ? 0 : maxSeq;
+        ensureCounter(NoteChangeCounter.SEQUENCE, current);
+        ensureCounter(NoteChangeCounter.TOMBSTONE_HORIZON, 0);
+
+        int raised = jdbcTemplate.update("UPDATE note_change_counters SET counter_value = ? WHERE name = ? AND counter_value < ?",
+            current, NoteChangeCounter.SEQUENCE, current);
+        if (raised > 0) {
+            logger.info("Moved note change sequence up to {}", current);
+        }
+    }
+
+    private void ensureCounter(String name, long initialValue) {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM note_change_counters WHERE name = ?", Integer.class, name);
+        if (rows != null && rows > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO note_change_counters (name, counter_value) VALUES (?, ?)", name, initialValue);
+            logger.info("Initialized note change counter {} at {}", name, initialValue);
+        } catch (DuplicateKeyException e) {
+            // Another node created the row first
+        }
+    }
+}
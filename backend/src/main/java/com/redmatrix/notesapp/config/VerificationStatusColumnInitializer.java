@@ -0,0 +1,67 @@
+package com.redmatrix.notesapp.config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Keeps MySQL ENUM status columns in line with VerificationStatus.
+ *
+ * Hibernate creates {@code @Enumerated(STRING)} columns as MySQL ENUMs, and
+ * {@code ddl-auto=update} never alters an existing column, so a status added to the
+ * Java enum (such as SUPERSEDED) would be rejected by databases created before it.
+ * Other databases are left alone.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class VerificationStatusColumnInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationStatusColumnInitializer.class);
+
+    private static final List<String> STATUS_TABLES =
+        List.of("transaction_verifications", "transaction_verifications_archive", "verification_status_counts");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VerificationStatusColumnInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignStatusColumns() throws Exception {
+        String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+            metaData -> metaData.getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return;
+        }
+
+        String values = Arrays.stream(VerificationStatus.values())
+            .map(status -> "'" + status.name() + "'")
+            .collect(Collectors.joining(","));
+        for (String table : STATUS_TABLES) {
+            List<String> types = jdbcTemplate.queryForList("SELECT COLUMN_TYPE FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = 'status'", String.class, table);
+            if (types.isEmpty() || !types.get(0).toLowerCase().startsWith("enum(")) {
+                continue;
+            }
+            String columnType = types.get(0);
+            boolean missing = Arrays.stream(VerificationStatus.values())
+                .anyMatch(status -> !columnType.contains("'" + status.name() + "'"));
+            if (missing) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY COLUMN status ENUM(" + values + ") NOT NULL");
+                logger.info("Extended {}.status to ENUM({})", table, values);
+            }
+        }
+    }
+}
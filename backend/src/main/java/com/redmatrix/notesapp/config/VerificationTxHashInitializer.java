@@ -0,0 +1,175 @@
+package com.redmatrix.notesapp.config;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Brings transaction_verifications created before tx_hash became unique up to date.
+ *
+ * {@code ddl-auto=update} cannot add uk_tx_hash while duplicate hashes exist (it logs the
+ * failure and carries on), and never drops indexes. So at startup, duplicates are collapsed
+ * into one row per hash, the constraint is added, and the indexes it replaces are dropped:
+ * idx_tx_hash, now covered by uk_tx_hash, and idx_note_id, a prefix of idx_note_created.
+ *
+ * Of each set of duplicates the row that decides the note's status is kept: VERIFIED first,
+ * then rows still being worked on, then the oldest. The others are moved to the archive table,
+ * so no history is lost.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class VerificationTxHashInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationTxHashInitializer.class);
+
+    private static final String TABLE = "transaction_verifications";
+    private static final String UNIQUE_KEY = "uk_tx_hash";
+    private static final List<String> REPLACED_INDEXES = List.of("idx_tx_hash", "idx_note_id");
+
+    /**
+     * Which duplicate to keep, best first.
+     */
+    private static final List<VerificationStatus> KEEP_ORDER = List.of(VerificationStatus.VERIFIED,
+        VerificationStatus.PROCESSING, VerificationStatus.PENDING, VerificationStatus.FAILED,
+        VerificationStatus.EXPIRED, VerificationStatus.SUPERSEDED);
+
+    private static final int MOVE_CHUNK_SIZE = 500;
+
+    private static final String DUPLICATES_SQL = "SELECT id, tx_hash, status FROM transaction_verifications "
+        + "WHERE tx_hash IN (SELECT tx_hash FROM transaction_verifications GROUP BY tx_hash HAVING COUNT(*) > 1) "
+        + "ORDER BY tx_hash, id";
+
+    private static final String ARCHIVE_SQL = "INSERT INTO transaction_verifications_archive (id, note_id, tx_hash, "
+        + "content_hash, owner_wallet, status, retry_count, max_retries, last_error, verified_at, blockchain_content_hash, "
+        + "blockchain_action, hash_match, created_at, updated_at, archived_at) "
+        + "SELECT id, note_id, tx_hash, content_hash, owner_wallet, status, retry_count, max_retries, last_error, "
+        + "verified_at, blockchain_content_hash, blockchain_action, hash_match, created_at, updated_at, CURRENT_TIMESTAMP "
+        + "FROM transaction_verifications WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public VerificationTxHashInitializer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void ensureUniqueTxHash() throws Exception {
+        Map<String, Index> indexes = indexes();
+        if (!hasUniqueTxHash(indexes)) {
+            archiveDuplicates();
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + UNIQUE_KEY + " UNIQUE (tx_hash)");
+                logger.info("Added unique key {} on {}.tx_hash", UNIQUE_KEY, TABLE);
+            } catch (DataAccessException e) {
+                // Another node got there first, or a duplicate was inserted in between
+                if (!hasUniqueTxHash(indexes())) {
+                    throw e;
+                }
+            }
+        }
+
+        boolean mysql = "MySQL".equalsIgnoreCase(JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+            metaData -> metaData.getDatabaseProductName()));
+        for (String index : REPLACED_INDEXES) {
+            if (indexes.containsKey(index)) {
+                jdbcTemplate.execute(mysql ? "ALTER TABLE " + TABLE + " DROP INDEX " + index : "DROP INDEX " + index);
+                logger.info("Dropped index {} on {}, replaced by newer indexes", index, TABLE);
+            }
+        }
+    }
+
+    private void archiveDuplicates() {
+        Map<String, List<Map<String, Object>>> byHash = new LinkedHashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(DUPLICATES_SQL)) {
+            byHash.computeIfAbsent((String) row.get("tx_hash"), k -> new ArrayList<>()).add(row);
+        }
+        if (byHash.isEmpty()) {
+            return;
+        }
+
+        List<Long> extra = new ArrayList<>();
+        for (List<Map<String, Object>> rows : byHash.values()) {
+            // Rows come in id order, so the first of the best status is the oldest
+            Map<String, Object> keep = Collections.min(rows, (a, b) -> Integer.compare(rank(a), rank(b)));
+            for (Map<String, Object> row : rows) {
+                if (row != keep) {
+                    extra.add(((Number) row.get("id")).longValue());
+                }
+            }
+        }
+
+        for (int start = 0; start < extra.size(); start += MOVE_CHUNK_SIZE) {
+            List<Long> chunk = extra.subList(start, Math.min(start + MOVE_CHUNK_SIZE, extra.size()));
+            String ids = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.update(String.format(ARCHIVE_SQL, ids), chunk.toArray());
+                jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE id IN (" + ids + ")", chunk.toArray());
+            });
+        }
+        logger.info("Archived {} duplicate verifications of {} transaction hashes", extra.size(), byHash.size());
+    }
+
+    private static int rank(Map<String, Object> row) {
+        String status = String.valueOf(row.get("status"));
+        for (int i = 0; i < KEEP_ORDER.size(); i++) {
+            if (KEEP_ORDER.get(i).name().equals(status)) {
+                return i;
+            }
+        }
+        return KEEP_ORDER.size();
+    }
+
+    /**
+     * An index on the verification table: whether it is unique and its lower-cased columns.
+     */
+    private record Index(boolean unique, List<String> columns) {}
+
+    // Some databases name the index behind a unique constraint differently, so look at what it covers
+    private static boolean hasUniqueTxHash(Map<String, Index> indexes) {
+        return indexes.values().stream().anyMatch(index -> index.unique() && index.columns().equals(List.of("tx_hash")));
+    }
+
+    /**
+     * Indexes and unique keys on the verification table, by lower-cased name.
+     */
+    private Map<String, Index> indexes() throws Exception {
+        return JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), (DatabaseMetaData metaData) -> {
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+            Map<String, Index> indexes = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(metaData.getConnection().getCatalog(), null, table, false, false)) {
+                while (rs.next()) {
+                    String name = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (name == null || column == null) {
+                        continue;
+                    }
+                    boolean unique = !rs.getBoolean("NON_UNIQUE");
+                    indexes.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new Index(unique, new ArrayList<>()))
+                        .columns().add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+            return indexes;
+        });
+    }
+}
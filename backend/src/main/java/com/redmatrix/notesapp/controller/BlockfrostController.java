@@ -2,6 +2,8 @@ package com.redmatrix.notesapp.controller;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,26 +29,35 @@ public class BlockfrostController {
     
     /**
      * GET /api/blockfrost/txs/{txHash}/metadata
-     * Fetch transaction metadata from Blockfrost API
+     * Fetch transaction metadata from Blockfrost API.
+     * Answered asynchronously: the request thread is released while Blockfrost responds.
      */
     @GetMapping("/txs/{txHash}/metadata")
-    public ResponseEntity<List<Map<String, Object>>> getTransactionMetadata(@PathVariable String txHash) {
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getTransactionMetadata(@PathVariable String txHash) {
+        logger.info("Received request for transaction metadata: {}", txHash);
+        CompletableFuture<List<Map<String, Object>>> metadata;
         try {
-            logger.info("Received request for transaction metadata: {}", txHash);
-            List<Map<String, Object>> metadata = blockfrostService.getTransactionMetadata(txHash);
-            return ResponseEntity.ok(metadata);
+            metadata = blockfrostService.getTransactionMetadataAsync(txHash);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected transaction metadata request: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(null));
         } catch (IllegalStateException e) {
             logger.error("Blockfrost configuration error: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(null);
-        } catch (RuntimeException e) {
-            logger.error("Error fetching transaction metadata: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(null));
+        }
+        return metadata.handle((result, error) -> {
+            if (error == null) {
+                return ResponseEntity.ok(result);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            logger.error("Error fetching transaction metadata: {}", cause.getMessage());
             // Check if it's a 404 error
-            if (e.getMessage().contains("Transaction not found") || e.getMessage().contains("404")) {
+            String message = String.valueOf(cause.getMessage());
+            if (message.contains("Transaction not found") || message.contains("404")) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
             }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
-        }
+        });
     }
 }
-
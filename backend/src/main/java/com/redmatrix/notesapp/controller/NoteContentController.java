@@ -0,0 +1,142 @@
+package com.redmatrix.notesapp.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.redmatrix.notesapp.service.NoteContentService;
+import com.redmatrix.notesapp.service.NoteContentService.ContentSink;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the raw content of a note, for notes too large to fetch comfortably as JSON.
+ *
+ * The body is streamed from the database as UTF-8 text. Single byte ranges are supported,
+ * so an editor can show the start of a huge note before the rest arrives; full responses
+ * are gzipped when the client accepts it. The ETag is the note's change sequence.
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+public class NoteContentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteContentController.class);
+
+    private static final String CONTENT_TYPE = "text/plain;charset=UTF-8";
+    private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+
+    @Autowired
+    private NoteContentService noteContentService;
+
+    // GET /api/notes/{id}/content - Stream a note's content as text, with byte ranges
+    @RequestMapping(value = "/api/notes/{id}/content", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getContent(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<Long> version = noteContentService.getVersion(id);
+        if (version.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        boolean gzip = rangeHeader == null && acceptsGzip(request);
+        // The gzipped body is a different representation and gets its own ETag
+        String suffix = gzip ? "-gz" : "";
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (webRequest.checkNotModified(etag(id, version.get(), suffix))) {
+            return;
+        }
+
+        boolean head = "HEAD".equals(request.getMethod());
+        OutputStream[] compressed = new OutputStream[1];
+        boolean found;
+        try {
+            found = noteContentService.writeContent(id, info -> {
+                // The note may have changed since the check above; tag what is actually sent
+                String etag = etag(id, info.changeSeq(), suffix);
+                long length = info.length();
+                long start = 0;
+                long end = length - 1;
+                response.setHeader(HttpHeaders.ETAG, etag);
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+                response.setHeader("X-Content-Type-Options", "nosniff");
+
+                String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+                if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+                    List<HttpRange> ranges;
+                    try {
+                        ranges = HttpRange.parseRanges(rangeHeader);
+                        if (ranges.size() == 1) {
+                            start = ranges.get(0).getRangeStart(length);
+                            end = ranges.get(0).getRangeEnd(length);
+                            if (start >= length || start > end) {
+                                throw new IllegalArgumentException("Range not satisfiable: " + rangeHeader);
+                            }
+                        }
+                    } catch (IllegalArgumentException e) {
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                        response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        return null;
+                    }
+                    // Several ranges are answered with the whole content
+                    if (ranges.size() == 1) {
+                        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                    }
+                }
+                response.setContentType(CONTENT_TYPE);
+
+                if (gzip) {
+                    // Compressed size is unknown up front, so no Content-Length
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    if (head) {
+                        return null;
+                    }
+                    compressed[0] = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE);
+                    return new ContentSink(compressed[0], start, end);
+                }
+                long count = length == 0 ? 0 : end - start + 1;
+                response.setContentLengthLong(count);
+                return head || count == 0 ? null : new ContentSink(response.getOutputStream(), start, end);
+            });
+            if (compressed[0] != null) {
+                compressed[0].close();
+            }
+        } catch (IOException e) {
+            // Usually the client going away mid-download
+            logger.debug("Error sending content of note {}: {}", id, e.getMessage());
+            return;
+        }
+        if (!found && !response.isCommitted()) {
+            // Deleted in between the two reads
+            response.reset();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static String etag(Long id, long changeSeq, String suffix) {
+        return "\"" + id + "-" + changeSeq + suffix + "\"";
+    }
+}
@@ -1,18 +1,17 @@
 package com.redmatrix.notesapp.controller;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Arrays;
-import java.util.UUID;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,13 +20,29 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.redmatrix.notesapp.diagnostics.UploadWriteEvent;
 import com.redmatrix.notesapp.entity.Note;
+import com.redmatrix.notesapp.service.ChunkedUploadService;
+import com.redmatrix.notesapp.service.ChunkedUploadService.UploadStatus;
+import com.redmatrix.notesapp.service.ImageVariantService;
+import com.redmatrix.notesapp.service.NoteChangeTracker;
+import com.redmatrix.notesapp.service.NoteChangeTracker.ChangePage;
+import com.redmatrix.notesapp.service.NoteEventHub;
 import com.redmatrix.notesapp.service.NoteService;
+import com.redmatrix.notesapp.service.NoteTransferService;
+import com.redmatrix.notesapp.service.NoteTransferService.ImportStatus;
+import com.redmatrix.notesapp.service.UploadStore;
+import com.redmatrix.notesapp.service.UploadStore.StoredUpload;
 
 @RestController
 @RequestMapping("/api/notes")
@@ -36,11 +51,28 @@ public class NoteController {
 
     private static final Logger logger = LoggerFactory.getLogger(NoteController.class);
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Autowired
     private NoteService noteService;
 
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private NoteEventHub noteEventHub;
+
+    @Autowired
+    private NoteChangeTracker changeTracker;
+
+    @Autowired
+    private NoteTransferService noteTransferService;
 
     // GET /api/notes - Get all notes
     @GetMapping
@@ -49,6 +81,64 @@ public class NoteController {
         return ResponseEntity.ok(notes);
     }
 
+    // GET /api/notes/changes?since=<cursor>&limit= - Notes changed and deleted since a cursor, for incremental sync
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) String since,
+                                        @RequestParam(defaultValue = "500") int limit) {
+        try {
+            ChangePage page = changeTracker.getChanges(since, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            // Deletions after the cursor were already purged; the client has to sync from scratch
+            return ResponseEntity.status(HttpStatus.GONE).body(e.getMessage());
+        }
+    }
+
+    // GET /api/notes/export - Stream every note as NDJSON
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportNotes() {
+        StreamingResponseBody body = out -> noteTransferService.exportNotes(out);
+        return ResponseEntity.ok()
+            .contentType(NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.ndjson\"")
+            .body(body);
+    }
+
+    // POST /api/notes/import - Import notes from an NDJSON body
+    @PostMapping("/import")
+    public ResponseEntity<?> importNotes(HttpServletRequest request) {
+        try {
+            ImportStatus result = noteTransferService.importNotes(request.getInputStream());
+            // Stopped by a database error; the batches committed before it are reported
+            return result.aborted() ? ResponseEntity.internalServerError().body(result) : ResponseEntity.ok(result);
+        } catch (IOException e) {
+            logger.warn("Note import aborted: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Could not read import: " + e.getMessage());
+        }
+    }
+
+    // GET /api/notes/import - Progress of running imports
+    @GetMapping("/import")
+    public ResponseEntity<Collection<ImportStatus>> getRunningImports() {
+        return ResponseEntity.ok(noteTransferService.getRunningImports());
+    }
+
+    // GET /api/notes/events?noteIds=1,2&wallet= - Stream note and verification changes (Server-Sent Events)
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam(required = false) Set<Long> noteIds,
+                                                   @RequestParam(required = false) String wallet) {
+        try {
+            return ResponseEntity.ok(noteEventHub.subscribe(noteIds == null ? Set.of() : noteIds, wallet));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("Rejected event subscription: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     // GET /api/notes/{id} - Get note by ID
     @GetMapping("/{id}")
     public ResponseEntity<Note> getNoteById(@PathVariable Long id) {
@@ -150,30 +240,25 @@ public class NoteController {
                         .body("File size must be less than 5MB");
             }
 
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                logger.info("Created upload directory: {}", uploadPath.toAbsolutePath());
+            // Store content-addressed: identical images share one file
+            UploadWriteEvent writeEvent = new UploadWriteEvent();
+            writeEvent.begin();
+            StoredUpload stored = uploadStore.store(file.getInputStream(), contentType);
+            writeEvent.end();
+            if (writeEvent.shouldCommit()) {
+                writeEvent.filename = stored.path();
+                writeEvent.contentType = contentType;
+                writeEvent.bytes = stored.size();
+                writeEvent.duplicate = stored.duplicate();
+                writeEvent.commit();
             }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            logger.info("Image saved to: {}", stored.path());
+            if (!stored.duplicate()) {
+                imageVariantService.generateAsync(uploadStore.getRoot().resolve(stored.path()));
             }
 
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-            Path filePath = uploadPath.resolve(uniqueFilename);
-
-            // Save the file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            logger.info("Image saved to: {}", filePath.toAbsolutePath());
-
             // Return the URL for the uploaded file
-            String fileUrl = "/uploads/" + uniqueFilename;
-            return ResponseEntity.ok(new UploadResponse(fileUrl, uniqueFilename, file.getSize()));
+            return ResponseEntity.ok(new UploadResponse(stored.url(), stored.path(), stored.size()));
 
         } catch (Exception e) {
             logger.error("Error uploading image: {}", e.getMessage(), e);
@@ -182,17 +267,91 @@ public class NoteController {
         }
     }
 
+    // POST /api/notes/upload/chunked - Start a chunked upload
+    @PostMapping("/upload/chunked")
+    public ResponseEntity<?> startChunkedUpload(@RequestBody ChunkedUploadRequest request) {
+        try {
+            UploadStatus status = chunkedUploadService.start(request.contentType(), request.size());
+            return ResponseEntity.status(HttpStatus.CREATED).body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error starting chunked upload: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // GET /api/notes/upload/chunked/{uploadId} - Chunks still missing, to resume an upload
+    @GetMapping("/upload/chunked/{uploadId}")
+    public ResponseEntity<UploadStatus> getChunkedUpload(@PathVariable String uploadId) {
+        return chunkedUploadService.getStatus(uploadId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // PUT /api/notes/upload/chunked/{uploadId}?offset= - Upload one chunk, raw bytes in the body
+    @PutMapping("/upload/chunked/{uploadId}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId, @RequestParam long offset,
+                                         @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+                                         HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.writeChunk(uploadId, offset, request.getInputStream(), sha256));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error writing chunk at {} of upload {}: {}", offset, uploadId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // POST /api/notes/upload/chunked/{uploadId}/complete - Store a fully received chunked upload
+    @PostMapping("/upload/chunked/{uploadId}/complete")
+    public ResponseEntity<?> completeChunkedUpload(@PathVariable String uploadId) {
+        try {
+            StoredUpload stored = chunkedUploadService.complete(uploadId);
+            if (!stored.duplicate()) {
+                imageVariantService.generateAsync(uploadStore.getRoot().resolve(stored.path()));
+            }
+            return ResponseEntity.ok(new UploadResponse(stored.url(), stored.path(), stored.size()));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error completing chunked upload {}: {}", uploadId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error uploading image: " + e.getMessage());
+        }
+    }
+
+    // DELETE /api/notes/upload/chunked/{uploadId} - Abandon a chunked upload
+    @DeleteMapping("/upload/chunked/{uploadId}")
+    public ResponseEntity<?> abortChunkedUpload(@PathVariable String uploadId) {
+        try {
+            return chunkedUploadService.abort(uploadId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            // A chunk is stalled mid-write; the upload is removed once it ends
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error aborting chunked upload {}: {}", uploadId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // Helper method to validate image types
     private boolean isValidImageType(String contentType) {
-        return Arrays.asList(
-                "image/jpeg",
-                "image/jpg",
-                "image/png",
-                "image/gif",
-                "image/webp",
-                "image/svg+xml").contains(contentType.toLowerCase());
+        return uploadStore.isSupportedType(contentType);
     }
 
+    // Request body to start a chunked upload
+    public record ChunkedUploadRequest(String contentType, long size) {}
+
     // Response class for upload endpoint
     private static class UploadResponse {
         private String url;
@@ -1,5 +1,8 @@
 package com.redmatrix.notesapp.controller;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -7,6 +10,7 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,10 +19,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.redmatrix.notesapp.entity.ArchivedTransactionVerification;
 import com.redmatrix.notesapp.entity.TransactionVerification;
+import com.redmatrix.notesapp.entity.VerificationRollup.Granularity;
 import com.redmatrix.notesapp.service.TransactionVerificationService;
+import com.redmatrix.notesapp.service.TransactionVerificationService.EnqueueRequest;
+import com.redmatrix.notesapp.service.TransactionVerificationService.EnqueueResult;
+import com.redmatrix.notesapp.service.VerificationArchiveService;
+import com.redmatrix.notesapp.service.VerificationRollupService;
+import com.redmatrix.notesapp.service.VerificationRollupService.RollupPoint;
 import com.redmatrix.notesapp.worker.TransactionVerificationWorker;
 
 /**
@@ -42,6 +54,12 @@ public class TransactionVerificationController {
     @Autowired
     private TransactionVerificationWorker verificationWorker;
 
+    @Autowired
+    private VerificationRollupService rollupService;
+
+    @Autowired
+    private VerificationArchiveService archiveService;
+
     /**
      * Queue a new transaction for verification.
      * POST /api/verifications
@@ -78,6 +96,32 @@ public class TransactionVerificationController {
         }
     }
 
+    /**
+     * Queue many transactions for verification in one call.
+     * POST /api/verifications/batch
+     * 
+     * Request body: a JSON array of verification requests (same fields as POST /api/verifications).
+     * Response: one result per item, in request order, with outcome CREATED, EXISTING,
+     * DUPLICATE (repeated txHash within the batch), INVALID or FAILED.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<EnqueueResult>> queueVerificationBatch(@RequestBody List<VerificationRequest> requests) {
+        try {
+            logger.info("Received batch verification request with {} items", requests.size());
+
+            List<EnqueueRequest> items = requests.stream()
+                .map(r -> r == null ? null : new EnqueueRequest(r.getNoteId(), r.getTxHash(), r.getContentHash(), r.getOwnerWallet()))
+                .toList();
+            return ResponseEntity.ok(verificationService.queueBatch(items));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid batch verification request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error queueing verification batch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Get verification by ID.
      * GET /api/verifications/{id}
@@ -121,6 +165,22 @@ public class TransactionVerificationController {
                           .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Get the latest verification of many notes at once, e.g. for a page of the notes grid.
+     * GET /api/verifications/latest?noteIds=1,2,3
+     * 
+     * Returns an object keyed by note id; notes without verifications are left out.
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<Map<Long, TransactionVerification>> getLatestVerificationsForNotes(@RequestParam List<Long> noteIds) {
+        try {
+            return ResponseEntity.ok(verificationService.getLatestVerificationsForNotes(noteIds));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid latest verifications request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get verification statistics.
      * GET /api/verifications/stats
@@ -131,6 +191,83 @@ public class TransactionVerificationController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Get verified/failed/expired counts and time-to-verify percentiles per time bucket.
+     * GET /api/verifications/stats/timeseries?granularity=hour&from=2025-01-01T00:00:00Z&to=2025-01-02T00:00:00Z
+     * 
+     * granularity is minute, hour (default) or day. Without from/to the last
+     * hour (minute), day (hour) or 30 days (day) is returned.
+     */
+    @GetMapping("/stats/timeseries")
+    public ResponseEntity<List<RollupPoint>> getVerificationTimeseries(
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        try {
+            Granularity bucketSize = Granularity.valueOf(granularity.toUpperCase());
+            Instant end = to != null ? to.toInstant() : Instant.now();
+            Instant start = from != null ? from.toInstant() : end.minus(defaultWindow(bucketSize));
+            return ResponseEntity.ok(rollupService.timeseries(bucketSize, start, end));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid timeseries request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static Duration defaultWindow(Granularity granularity) {
+        switch (granularity) {
+            case MINUTE:
+                return Duration.ofHours(1);
+            case DAY:
+                return Duration.ofDays(30);
+            default:
+                return Duration.ofDays(1);
+        }
+    }
+
+    /**
+     * Get archived verifications for a note, newest first.
+     * GET /api/verifications/archive/note/{noteId}?page=0&size=50
+     */
+    @GetMapping("/archive/note/{noteId}")
+    public ResponseEntity<List<ArchivedTransactionVerification>> getArchivedVerificationsForNote(
+            @PathVariable Long noteId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(archiveService.getArchivedForNote(noteId, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get archived verifications for a wallet, newest first.
+     * GET /api/verifications/archive/wallet/{ownerWallet}?page=0&size=50
+     */
+    @GetMapping("/archive/wallet/{ownerWallet}")
+    public ResponseEntity<List<ArchivedTransactionVerification>> getArchivedVerificationsForWallet(
+            @PathVariable String ownerWallet,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(archiveService.getArchivedForWallet(ownerWallet, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get an archived verification by transaction hash.
+     * GET /api/verifications/archive/tx/{txHash}
+     */
+    @GetMapping("/archive/tx/{txHash}")
+    public ResponseEntity<ArchivedTransactionVerification> getArchivedVerificationByTxHash(@PathVariable String txHash) {
+        Optional<ArchivedTransactionVerification> verification = archiveService.getArchivedByTxHash(txHash);
+        return verification.map(ResponseEntity::ok)
+                          .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Get all verifications (admin endpoint).
      * GET /api/verifications
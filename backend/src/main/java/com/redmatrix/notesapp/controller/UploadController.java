@@ -0,0 +1,201 @@
+package com.redmatrix.notesapp.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.redmatrix.notesapp.service.ImageVariantService;
+import com.redmatrix.notesapp.service.UploadStore;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves uploaded images.
+ *
+ * Upload names never change content (content-addressed, or random for older uploads),
+ * so responses carry a strong ETag and are cached as immutable. For content-addressed
+ * files the ETag is the hash in the name, so conditional requests are answered without
+ * touching the file. Single byte ranges are supported. The body is handed to Tomcat's
+ * sendfile when available, otherwise copied with FileChannel.transferTo.
+ * {@code ?w=<width>} serves a downscaled variant (see ImageVariantService).
+ */
+@RestController
+public class UploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadController.class);
+
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    static final String VARIANT_PENDING_CACHE_CONTROL = "public, max-age=60";
+
+    // Request attributes of Tomcat's sendfile support (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    // GET /uploads/** - Serve an uploaded image
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serveUpload(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = URL_PATH_HELPER.getPathWithinApplication(request).substring(UploadStore.URL_PREFIX.length());
+        Optional<Path> resolved = uploadStore.resolve(relative);
+        if (resolved.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = resolved.get();
+
+        // ?w= picks the smallest configured variant at least that wide
+        int width = 0;
+        String requestedWidth = request.getParameter("w");
+        if (requestedWidth != null) {
+            try {
+                width = imageVariantService.snapWidth(Integer.parseInt(requestedWidth));
+            } catch (NumberFormatException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+        }
+        String variantSuffix = width > 0 ? "-w" + width : "";
+
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+
+        // Content-addressed: the name is the ETag, no need to look at the file
+        Optional<String> hash = uploadStore.contentHash(file);
+        if (hash.isPresent() && webRequest.checkNotModified(etag(hash.get() + variantSuffix))) {
+            return;
+        }
+
+        if (width > 0 && Files.isRegularFile(file)) {
+            Path variant = imageVariantService.variantFor(file, width);
+            if (variant.equals(file)) {
+                // Not resizable, or not ready yet: serve the original under its own ETag, briefly cached
+                variantSuffix = "";
+                response.setHeader(HttpHeaders.CACHE_CONTROL, VARIANT_PENDING_CACHE_CONTROL);
+            }
+            file = variant;
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = attributes.size();
+        String suffix = variantSuffix;
+        String etag = hash.map(h -> etag(h + suffix))
+            .orElseGet(() -> etag(Long.toHexString(length) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis())));
+        // Not checked yet: random names, and content-addressed originals served in place of a variant
+        boolean checked = hash.isPresent() && (width == 0 || !suffix.isEmpty());
+        // checkNotModified keeps an ETag header that is already set
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (!checked && webRequest.checkNotModified(etag, attributes.lastModifiedTime().toMillis())) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (file.getFileName().toString().endsWith(".svg")) {
+            // SVG can carry script; never let it run in our origin
+            response.setHeader("Content-Security-Policy", "default-src 'none'; style-src 'unsafe-inline'; sandbox");
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range not satisfiable: " + rangeHeader);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            // Several ranges are answered with the whole file
+            if (ranges.size() == 1) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+            .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat only accepts the canonical path
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            // Usually the client going away mid-download
+            logger.debug("Error sending upload {}: {}", relative, e.getMessage());
+        }
+    }
+
+    private static String etag(String value) {
+        return "\"" + value + "\"";
+    }
+}
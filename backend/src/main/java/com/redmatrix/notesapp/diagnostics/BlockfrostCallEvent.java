@@ -0,0 +1,32 @@
+package com.redmatrix.notesapp.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one HTTP call to the Blockfrost API.
+ */
+@Name("com.redmatrix.notesapp.BlockfrostCall")
+@Label("Blockfrost Call")
+@Category({"RedMatrix", "Blockfrost"})
+@Description("An HTTP request to the Blockfrost API")
+@StackTrace(false)
+public class BlockfrostCallEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Transaction Hash")
+    public String txHash;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("HTTP Status")
+    @Description("Response status code, 0 when no response was received")
+    public int httpStatus;
+}
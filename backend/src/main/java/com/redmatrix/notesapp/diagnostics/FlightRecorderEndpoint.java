@@ -0,0 +1,99 @@
+package com.redmatrix.notesapp.diagnostics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to control JDK Flight Recorder on demand.
+ *
+ * GET    /actuator/flightrecorder          - list recordings (including the continuous one)
+ * POST   /actuator/flightrecorder          - start a recording, body: {"name": "...", "settings": "profile", "durationSeconds": 120}
+ * GET    /actuator/flightrecorder/{id}     - download what recording {id} has captured so far as a .jfr file
+ * DELETE /actuator/flightrecorder/{id}     - stop and close recording {id}
+ *
+ * Not exposed by default: dumps contain stack traces and request data, and starting
+ * recordings costs CPU. Expose it only on a management port that is not public.
+ */
+@Component
+@WebEndpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private final FlightRecorderService flightRecorderService;
+
+    public FlightRecorderEndpoint(FlightRecorderService flightRecorderService) {
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    @ReadOperation
+    public List<FlightRecorderService.RecordingInfo> recordings() {
+        return flightRecorderService.listRecordings();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> start(@Nullable String name, @Nullable String settings, @Nullable Long durationSeconds) {
+        try {
+            Duration duration = durationSeconds == null ? null : Duration.ofSeconds(durationSeconds);
+            return new WebEndpointResponse<>(flightRecorderService.start(name, settings, duration), WebEndpointResponse.STATUS_OK);
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            return new WebEndpointResponse<>("Invalid recording settings: " + e.getMessage(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(e.getMessage(), WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector long id) throws IOException {
+        Optional<Path> file = flightRecorderService.dump(id);
+        return file.<WebEndpointResponse<Resource>>map(path -> new WebEndpointResponse<>(new DumpResource(path)))
+            .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<FlightRecorderService.RecordingInfo> stop(@Selector long id) {
+        return flightRecorderService.stop(id)
+            .map(WebEndpointResponse::new)
+            .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    /**
+     * A dump file that is deleted once it has been streamed to the client.
+     */
+    private static final class DumpResource extends FileSystemResource {
+
+        DumpResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
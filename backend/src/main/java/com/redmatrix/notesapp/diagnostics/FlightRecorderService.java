@@ -0,0 +1,213 @@
+package com.redmatrix.notesapp.diagnostics;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Manages JDK Flight Recorder recordings for the application.
+ *
+ * An always-on continuous recording (bounded by age and size) is started at boot, so the
+ * custom RedMatrix events and the JDK's own events for the last few minutes are always
+ * available to dump after a latency spike. Additional recordings can be started, stopped
+ * and dumped on demand through the {@code flightrecorder} actuator endpoint.
+ *
+ * Recordings never capture the process environment, system properties or JVM arguments
+ * (jdk.InitialEnvironmentVariable, jdk.InitialSystemProperty, jdk.JVMInformation): they
+ * carry the database password and the Blockfrost project id.
+ */
+@Component
+public class FlightRecorderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderService.class);
+
+    static final String CONTINUOUS_RECORDING_NAME = "notesapp-continuous";
+
+    private static final List<String> SECRET_EVENTS = List.of(
+        "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+
+    @Value("${diagnostics.jfr.continuous.enabled:true}")
+    private boolean continuousEnabled;
+
+    @Value("${diagnostics.jfr.continuous.max-age:30m}")
+    private Duration continuousMaxAge;
+
+    @Value("${diagnostics.jfr.continuous.max-size-mb:100}")
+    private long continuousMaxSizeMb;
+
+    @Value("${diagnostics.jfr.dump-dir:${java.io.tmpdir}/notesapp-jfr}")
+    private String dumpDir;
+
+    /**
+     * Summary of a recording, returned by the actuator endpoint.
+     */
+    public record RecordingInfo(long id, String name, String state, String startTime, long size, String maxAge) {
+
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(
+                recording.getId(),
+                recording.getName(),
+                recording.getState().name(),
+                recording.getStartTime() == null ? null : recording.getStartTime().toString(),
+                recording.getSize(),
+                recording.getMaxAge() == null ? null : recording.getMaxAge().toString());
+        }
+    }
+
+    @PostConstruct
+    public void startContinuousRecording() {
+        removeLeftoverDumps();
+        if (!continuousEnabled || !FlightRecorder.isAvailable()) {
+            return;
+        }
+        try {
+            Recording recording = new Recording(settings("default"));
+            recording.setName(CONTINUOUS_RECORDING_NAME);
+            recording.setMaxAge(continuousMaxAge);
+            recording.setMaxSize(continuousMaxSizeMb * 1024 * 1024);
+            recording.setToDisk(true);
+            recording.start();
+            logger.info("Started continuous JFR recording {} (max age {}, max size {} MB)",
+                recording.getId(), continuousMaxAge, continuousMaxSizeMb);
+        } catch (IOException | ParseException | IllegalStateException e) {
+            logger.warn("Could not start continuous JFR recording: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void closeRecordings() {
+        for (Recording recording : ownRecordings()) {
+            recording.close();
+        }
+    }
+
+    public List<RecordingInfo> listRecordings() {
+        List<RecordingInfo> result = new ArrayList<>();
+        for (Recording recording : ownRecordings()) {
+            result.add(RecordingInfo.of(recording));
+        }
+        return result;
+    }
+
+    /**
+     * Start an on-demand recording.
+     *
+     * @param settings JFR settings to use, "default" (low overhead) or "profile" (more detail)
+     * @param duration optional duration after which the recording stops by itself
+     */
+    public RecordingInfo start(String name, String settings, Duration duration) throws IOException, ParseException {
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalStateException("Flight Recorder is not available in this JVM");
+        }
+        Recording recording = new Recording(settings(settings == null ? "default" : settings));
+        recording.setName(name == null || name.isBlank() ? "notesapp-" + System.currentTimeMillis() : name);
+        recording.setToDisk(true);
+        if (duration != null) {
+            recording.setDuration(duration);
+        }
+        recording.start();
+        logger.info("Started JFR recording {} ({}) with '{}' settings", recording.getId(), recording.getName(), settings);
+        return RecordingInfo.of(recording);
+    }
+
+    /**
+     * Stop and close a recording. Returns empty if there is no such recording.
+     */
+    public Optional<RecordingInfo> stop(long id) {
+        Optional<Recording> recording = find(id);
+        recording.ifPresent(r -> {
+            if (r.getState() == RecordingState.RUNNING) {
+                r.stop();
+            }
+            r.close();
+            logger.info("Closed JFR recording {} ({})", id, r.getName());
+        });
+        return recording.map(RecordingInfo::of);
+    }
+
+    /**
+     * Write the data recorded so far to a .jfr file and return its path.
+     * Running recordings keep running. The caller deletes the file once it has been sent.
+     */
+    public Optional<Path> dump(long id) throws IOException {
+        Optional<Recording> recording = find(id);
+        if (recording.isEmpty()) {
+            return Optional.empty();
+        }
+        Path dir = Paths.get(dumpDir);
+        Files.createDirectories(dir);
+        Path file = Files.createTempFile(dir, recording.get().getName() + "-" + id + "-", ".jfr");
+        try {
+            recording.get().dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        logger.info("Dumped JFR recording {} to {}", id, file.toAbsolutePath());
+        return Optional.of(file);
+    }
+
+    /**
+     * Named JFR settings with the events that would leak secrets turned off.
+     */
+    private static Map<String, String> settings(String name) throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration(name).getSettings());
+        for (String event : SECRET_EVENTS) {
+            settings.put(event + "#enabled", "false");
+        }
+        return settings;
+    }
+
+    // Dumps that were not deleted after sending, e.g. because the JVM stopped mid-download
+    private void removeLeftoverDumps() {
+        Path dir = Paths.get(dumpDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.jfr")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not remove old JFR dumps in {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private Optional<Recording> find(long id) {
+        return ownRecordings().stream().filter(r -> r.getId() == id).findFirst();
+    }
+
+    private List<Recording> ownRecordings() {
+        if (!FlightRecorder.isAvailable()) {
+            return List.of();
+        }
+        List<Recording> recordings = new ArrayList<>();
+        for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+            if (recording.getState() != RecordingState.CLOSED) {
+                recordings.add(recording);
+            }
+        }
+        return recordings;
+    }
+}
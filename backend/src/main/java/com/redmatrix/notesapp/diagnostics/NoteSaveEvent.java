@@ -0,0 +1,28 @@
+package com.redmatrix.notesapp.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a note create or update.
+ */
+@Name("com.redmatrix.notesapp.NoteSave")
+@Label("Note Save")
+@Category({"RedMatrix", "Notes"})
+@StackTrace(false)
+public class NoteSaveEvent extends Event {
+
+    @Label("Note ID")
+    public long noteId;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Content Length")
+    @Description("Length of the note content in characters")
+    public long contentLength;
+}
@@ -0,0 +1,33 @@
+package com.redmatrix.notesapp.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for writing an uploaded image to disk.
+ */
+@Name("com.redmatrix.notesapp.UploadWrite")
+@Label("Upload Write")
+@Category({"RedMatrix", "Uploads"})
+@StackTrace(false)
+public class UploadWriteEvent extends Event {
+
+    @Label("File Name")
+    public String filename;
+
+    @Label("Content Type")
+    public String contentType;
+
+    @Label("Size")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+
+    @Label("Duplicate")
+    @Description("Content was already stored, nothing new was written")
+    public boolean duplicate;
+}
@@ -0,0 +1,32 @@
+package com.redmatrix.notesapp.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one transaction verification attempt.
+ */
+@Name("com.redmatrix.notesapp.VerificationAttempt")
+@Label("Verification Attempt")
+@Category({"RedMatrix", "Verification"})
+@Description("A single verification of a note transaction against Blockfrost")
+@StackTrace(false)
+public class VerificationAttemptEvent extends Event {
+
+    @Label("Transaction Hash")
+    public String txHash;
+
+    @Label("Note ID")
+    public long noteId;
+
+    @Label("Outcome")
+    @Description("Status the verification ended up in")
+    public String outcome;
+
+    @Label("Retry Count")
+    public int retryCount;
+}
@@ -0,0 +1,166 @@
+package com.redmatrix.notesapp.entity;
+
+import java.time.OffsetDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+
+/**
+ * A terminal (VERIFIED, EXPIRED or SUPERSEDED) verification moved out of
+ * transaction_verifications by the retention job. Rows keep their original id and are
+ * never modified.
+ */
+@Entity
+@Immutable
+@Table(name = "transaction_verifications_archive", indexes = {
+    @Index(name = "idx_archive_tx_hash", columnList = "tx_hash"),
+    @Index(name = "idx_archive_note_id", columnList = "note_id, created_at"),
+    @Index(name = "idx_archive_archived_at", columnList = "archived_at")
+})
+public class ArchivedTransactionVerification {
+
+    @Id
+    private Long id;
+
+    @Column(name = "note_id", nullable = false)
+    private Long noteId;
+
+    @Column(name = "tx_hash", nullable = false)
+    private String txHash;
+
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    @Column(name = "owner_wallet")
+    private String ownerWallet;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private VerificationStatus status;
+
+    @Column(name = "retry_count")
+    private Integer retryCount;
+
+    @Column(name = "max_retries")
+    private Integer maxRetries;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "verified_at")
+    private OffsetDateTime verifiedAt;
+
+    @Column(name = "blockchain_content_hash")
+    private String blockchainContentHash;
+
+    @Column(name = "blockchain_action")
+    private String blockchainAction;
+
+    @Column(name = "hash_match")
+    private Boolean hashMatch;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private OffsetDateTime archivedAt;
+
+    // Constructors
+    protected ArchivedTransactionVerification() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getNoteId() {
+        return noteId;
+    }
+
+    public String getTxHash() {
+        return txHash;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getOwnerWallet() {
+        return ownerWallet;
+    }
+
+    public VerificationStatus getStatus() {
+        return status;
+    }
+
+    public Integer getRetryCount() {
+        return retryCount;
+    }
+
+    public Integer getMaxRetries() {
+        return maxRetries;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public OffsetDateTime getVerifiedAt() {
+        return verifiedAt;
+    }
+
+    public String getBlockchainContentHash() {
+        return blockchainContentHash;
+    }
+
+    public String getBlockchainAction() {
+        return blockchainAction;
+    }
+
+    public Boolean getHashMatch() {
+        return hashMatch;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public OffsetDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    /**
+     * A detached copy in the shape of a live verification, for callers that return one.
+     */
+    public TransactionVerification toVerification() {
+        TransactionVerification verification = new TransactionVerification(noteId, txHash, contentHash, ownerWallet);
+        verification.setId(id);
+        verification.setStatus(status);
+        verification.setRetryCount(retryCount);
+        verification.setMaxRetries(maxRetries);
+        verification.setLastError(lastError);
+        verification.setVerifiedAt(verifiedAt);
+        verification.setBlockchainContentHash(blockchainContentHash);
+        verification.setBlockchainAction(blockchainAction);
+        verification.setHashMatch(hashMatch);
+        verification.setCreatedAt(createdAt);
+        verification.setUpdatedAt(updatedAt);
+        return verification;
+    }
+}
@@ -9,12 +9,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "notes")
+@Table(name = "notes", indexes = {
+    @Index(name = "idx_change_seq", columnList = "change_seq, id")
+})
 
 public class Note {
     @Id
@@ -45,6 +48,10 @@ public class Note {
     @Column(name = "verification_status")
     private String verificationStatus;
     
+    // Position of the note's last change in the change feed, only written by NoteChangeTracker
+    @Column(name = "change_seq", updatable = false)
+    private Long changeSeq;
+    
     // Constructors
     public Note() {}
     
@@ -119,6 +126,14 @@ public class Note {
         this.createdAt = createdAt;
     }
     
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+    
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+    
     public OffsetDateTime getUpdatedAt() {
         return updatedAt;
     }
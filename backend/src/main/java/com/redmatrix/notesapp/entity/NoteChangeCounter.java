@@ -0,0 +1,50 @@
+package com.redmatrix.notesapp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Named counters of the note change feed: the last change sequence handed out, and
+ * the highest sequence of a purged tombstone.
+ */
+@Entity
+@Table(name = "note_change_counters")
+public class NoteChangeCounter {
+
+    public static final String SEQUENCE = "change_seq";
+    public static final String TOMBSTONE_HORIZON = "tombstone_horizon";
+
+    @Id
+    @Column(name = "name", nullable = false, length = 64)
+    private String name;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long value = 0L;
+
+    // Constructors
+    public NoteChangeCounter() {}
+
+    public NoteChangeCounter(String name, Long value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getValue() {
+        return value;
+    }
+
+    public void setValue(Long value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,65 @@
+package com.redmatrix.notesapp.entity;
+
+import java.time.OffsetDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Marker left behind by a deleted note, so the change feed can report the deletion.
+ * Removed once older than the tombstone retention.
+ */
+@Entity
+@Table(name = "note_tombstones", indexes = {
+    @Index(name = "idx_tombstone_change_seq", columnList = "change_seq"),
+    @Index(name = "idx_tombstone_deleted_at", columnList = "deleted_at")
+})
+public class NoteTombstone {
+
+    @Id
+    @Column(name = "note_id")
+    private Long noteId;
+
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    @Column(name = "deleted_at", nullable = false)
+    private OffsetDateTime deletedAt;
+
+    // Constructors
+    public NoteTombstone() {}
+
+    public NoteTombstone(Long noteId, Long changeSeq, OffsetDateTime deletedAt) {
+        this.noteId = noteId;
+        this.changeSeq = changeSeq;
+        this.deletedAt = deletedAt;
+    }
+
+    // Getters and Setters
+    public Long getNoteId() {
+        return noteId;
+    }
+
+    public void setNoteId(Long noteId) {
+        this.noteId = noteId;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public OffsetDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(OffsetDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -14,16 +14,19 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.Index;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * Entity to track blockchain transaction verification status.
  * Each record represents a verification attempt for a note's transaction.
  */
 @Entity
-@Table(name = "transaction_verifications", indexes = {
-    @Index(name = "idx_tx_hash", columnList = "tx_hash"),
-    @Index(name = "idx_note_id", columnList = "note_id"),
+@Table(name = "transaction_verifications", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_tx_hash", columnNames = "tx_hash")
+}, indexes = {
+    @Index(name = "idx_note_created", columnList = "note_id, created_at"),
     @Index(name = "idx_status", columnList = "status")
 })
 public class TransactionVerification {
@@ -33,11 +36,23 @@ public class TransactionVerification {
         PROCESSING,   // Currently being verified
         VERIFIED,     // Successfully verified on blockchain
         FAILED,       // Verification failed (tx not found or mismatch)
-        EXPIRED       // Too many retries, marked as expired
+        EXPIRED,      // Too many retries, marked as expired
+        SUPERSEDED    // A newer transaction was queued for the same note before this one was verified
     }
 
+    /**
+     * Ids are handed out in blocks from the id_generators table rather than by
+     * AUTO_INCREMENT, so Hibernate can batch inserts.
+     */
+    public static final String ID_GENERATOR_TABLE = "id_generators";
+    public static final String ID_GENERATOR_KEY = "transaction_verifications";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "verification_id")
+    @TableGenerator(name = "verification_id", table = ID_GENERATOR_TABLE,
+        pkColumnName = "name", valueColumnName = "next_val",
+        pkColumnValue = ID_GENERATOR_KEY, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "note_id", nullable = false)
@@ -0,0 +1,158 @@
+package com.redmatrix.notesapp.entity;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Pre-aggregated verification outcomes for one time bucket (a minute, hour or day).
+ * The time-to-verify distribution of the bucket is stored as a compressed HdrHistogram
+ * so buckets can be merged into coarser ones without losing percentile accuracy.
+ */
+@Entity
+@Table(name = "verification_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rollup_bucket", columnNames = {"granularity", "bucket_start"})
+})
+public class VerificationRollup {
+
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+
+        /**
+         * Start of the bucket containing the given instant (UTC).
+         */
+        public OffsetDateTime bucketStart(Instant instant) {
+            return instant.truncatedTo(unit).atOffset(ZoneOffset.UTC);
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "verified_count", nullable = false)
+    private Long verifiedCount = 0L;
+
+    @Column(name = "failed_count", nullable = false)
+    private Long failedCount = 0L;
+
+    @Column(name = "expired_count", nullable = false)
+    private Long expiredCount = 0L;
+
+    @Column(name = "ttv_histogram", length = 1_000_000)
+    private byte[] timeToVerifyHistogram;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    // Constructors
+    public VerificationRollup() {}
+
+    public VerificationRollup(Granularity granularity, OffsetDateTime bucketStart) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(OffsetDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getVerifiedCount() {
+        return verifiedCount;
+    }
+
+    public void setVerifiedCount(Long verifiedCount) {
+        this.verifiedCount = verifiedCount;
+    }
+
+    public Long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public Long getExpiredCount() {
+        return expiredCount;
+    }
+
+    public void setExpiredCount(Long expiredCount) {
+        this.expiredCount = expiredCount;
+    }
+
+    public byte[] getTimeToVerifyHistogram() {
+        return timeToVerifyHistogram;
+    }
+
+    public void setTimeToVerifyHistogram(byte[] timeToVerifyHistogram) {
+        this.timeToVerifyHistogram = timeToVerifyHistogram;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(OffsetDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = Instant.now().atOffset(ZoneOffset.UTC);
+    }
+}
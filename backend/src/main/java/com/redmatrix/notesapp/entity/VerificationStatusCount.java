@@ -0,0 +1,53 @@
+package com.redmatrix.notesapp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+
+/**
+ * Number of verifications in a given status.
+ * Only used when the shared statistics summary table is enabled, so that
+ * several backend nodes see the same counts.
+ */
+@Entity
+@Table(name = "verification_status_counts")
+public class VerificationStatusCount {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private VerificationStatus status;
+
+    @Column(name = "status_count", nullable = false)
+    private Long statusCount = 0L;
+
+    // Constructors
+    public VerificationStatusCount() {}
+
+    public VerificationStatusCount(VerificationStatus status, Long statusCount) {
+        this.status = status;
+        this.statusCount = statusCount;
+    }
+
+    // Getters and Setters
+    public VerificationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(VerificationStatus status) {
+        this.status = status;
+    }
+
+    public Long getStatusCount() {
+        return statusCount;
+    }
+
+    public void setStatusCount(Long statusCount) {
+        this.statusCount = statusCount;
+    }
+}
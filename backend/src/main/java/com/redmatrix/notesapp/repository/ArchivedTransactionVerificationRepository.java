@@ -0,0 +1,71 @@
+package com.redmatrix.notesapp.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.redmatrix.notesapp.entity.ArchivedTransactionVerification;
+
+/**
+ * Repository for archived transaction verifications.
+ */
+public interface ArchivedTransactionVerificationRepository extends JpaRepository<ArchivedTransactionVerification, Long> {
+
+    /**
+     * Find archived verifications for a specific note, newest first
+     */
+    List<ArchivedTransactionVerification> findByNoteIdOrderByCreatedAtDesc(Long noteId, Pageable pageable);
+
+    /**
+     * Find an archived verification by transaction hash
+     */
+    Optional<ArchivedTransactionVerification> findFirstByTxHashOrderByCreatedAtDesc(String txHash);
+
+    /**
+     * Transaction hash and id of the archived verifications for any of the given hashes
+     */
+    @Query("SELECT a.txHash, a.id FROM ArchivedTransactionVerification a WHERE a.txHash IN :txHashes")
+    List<Object[]> findIdsByTxHashIn(@Param("txHashes") Collection<String> txHashes);
+
+    /**
+     * Find archived verifications for a specific wallet, newest first
+     */
+    List<ArchivedTransactionVerification> findByOwnerWalletOrderByCreatedAtDesc(String ownerWallet, Pageable pageable);
+
+    /**
+     * Copy rows in an id range with the given status, last updated before the cutoff, into the archive
+     */
+    @Modifying
+    @Query(value = "INSERT INTO transaction_verifications_archive (id, note_id, tx_hash, content_hash, owner_wallet, "
+                 + "status, retry_count, max_retries, last_error, verified_at, blockchain_content_hash, blockchain_action, "
+                 + "hash_match, created_at, updated_at, archived_at) "
+                 + "SELECT id, note_id, tx_hash, content_hash, owner_wallet, status, retry_count, max_retries, last_error, "
+                 + "verified_at, blockchain_content_hash, blockchain_action, hash_match, created_at, updated_at, :now "
+                 + "FROM transaction_verifications "
+                 + "WHERE id BETWEEN :fromId AND :toId AND status = :status AND updated_at < :cutoff",
+           nativeQuery = true)
+    int copyRange(@Param("status") String status,
+                  @Param("fromId") long fromId,
+                  @Param("toId") long toId,
+                  @Param("cutoff") OffsetDateTime cutoff,
+                  @Param("now") OffsetDateTime now);
+
+    /**
+     * Delete from transaction_verifications the rows of an id range that are already in the archive
+     */
+    @Modifying
+    @Query(value = "DELETE FROM transaction_verifications "
+                 + "WHERE id BETWEEN :fromId AND :toId AND status = :status "
+                 + "AND id IN (SELECT a.id FROM transaction_verifications_archive a WHERE a.id BETWEEN :fromId AND :toId)",
+           nativeQuery = true)
+    int deleteArchivedRange(@Param("status") String status,
+                            @Param("fromId") long fromId,
+                            @Param("toId") long toId);
+}
@@ -0,0 +1,32 @@
+package com.redmatrix.notesapp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.redmatrix.notesapp.entity.NoteChangeCounter;
+
+/**
+ * Repository for the note change feed counters.
+ */
+public interface NoteChangeCounterRepository extends JpaRepository<NoteChangeCounter, String> {
+
+    /**
+     * Increment a counter in place. The row stays locked until the transaction ends,
+     * so values are handed out in commit order.
+     */
+    @Modifying
+    @Query("UPDATE NoteChangeCounter c SET c.value = c.value + 1 WHERE c.name = :name")
+    int increment(@Param("name") String name);
+
+    /**
+     * Raise a counter to at least the given value.
+     */
+    @Modifying
+    @Query("UPDATE NoteChangeCounter c SET c.value = :value WHERE c.name = :name AND c.value < :value")
+    int raiseTo(@Param("name") String name, @Param("value") long value);
+
+    @Query("SELECT c.value FROM NoteChangeCounter c WHERE c.name = :name")
+    Long currentValue(@Param("name") String name);
+}
@@ -3,8 +3,11 @@ package com.redmatrix.notesapp.repository;
 
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -37,4 +40,24 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
     // Find notes created in the last N days
     @Query("SELECT n FROM Note n WHERE n.createdAt >= :startDate ORDER BY n.createdAt DESC")
     List<Note> findRecentNotes(@Param("startDate") LocalDate startDate);
-}
\ No newline at end of file
+
+    // Set the verification status of one note without loading it (does not touch updatedAt)
+    @Modifying
+    @Query("UPDATE Note n SET n.verificationStatus = :status WHERE n.id = :id")
+    int updateVerificationStatus(@Param("id") Long id, @Param("status") String status);
+
+    // Set the verification status of many notes in one statement (does not touch updatedAt)
+    @Modifying
+    @Query("UPDATE Note n SET n.verificationStatus = :status WHERE n.id IN :ids")
+    int updateVerificationStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    // Stamp notes with a change sequence value (see NoteChangeTracker)
+    @Modifying
+    @Query("UPDATE Note n SET n.changeSeq = :changeSeq WHERE n.id IN :ids")
+    int updateChangeSeq(@Param("ids") Collection<Long> ids, @Param("changeSeq") long changeSeq);
+
+    // Notes changed after a change feed cursor, in feed order
+    @Query("SELECT n FROM Note n WHERE n.changeSeq > :seq OR (n.changeSeq = :seq AND n.id > :id) " +
+           "ORDER BY n.changeSeq, n.id")
+    List<Note> findChangedAfter(@Param("seq") long seq, @Param("id") long id, Pageable pageable);
+}
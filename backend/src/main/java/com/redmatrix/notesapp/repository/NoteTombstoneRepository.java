@@ -0,0 +1,32 @@
+package com.redmatrix.notesapp.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.redmatrix.notesapp.entity.NoteTombstone;
+
+/**
+ * Repository for deleted-note markers of the change feed.
+ */
+public interface NoteTombstoneRepository extends JpaRepository<NoteTombstone, Long> {
+
+    /**
+     * Tombstones after a change feed cursor, in feed order.
+     */
+    @Query("SELECT t FROM NoteTombstone t WHERE t.changeSeq > :seq OR (t.changeSeq = :seq AND t.noteId > :noteId) " +
+           "ORDER BY t.changeSeq, t.noteId")
+    List<NoteTombstone> findChangedAfter(@Param("seq") long seq, @Param("noteId") long noteId, Pageable pageable);
+
+    @Query("SELECT MAX(t.changeSeq) FROM NoteTombstone t WHERE t.deletedAt < :cutoff")
+    Long findMaxChangeSeqDeletedBefore(@Param("cutoff") OffsetDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM NoteTombstone t WHERE t.changeSeq <= :seq")
+    int deleteUpToChangeSeq(@Param("seq") long seq);
+}
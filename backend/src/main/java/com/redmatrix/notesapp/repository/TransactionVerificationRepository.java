@@ -1,9 +1,13 @@
 package com.redmatrix.notesapp.repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -38,11 +42,27 @@ public interface TransactionVerificationRepository extends JpaRepository<Transac
      */
     Optional<TransactionVerification> findFirstByNoteIdOrderByCreatedAtDesc(Long noteId);
 
+    /**
+     * Latest verification of each of the given notes, one ROW_NUMBER pass over idx_note_created
+     */
+    @Query(value = "SELECT ranked.* FROM ("
+                 + "SELECT tv.*, ROW_NUMBER() OVER (PARTITION BY tv.note_id ORDER BY tv.created_at DESC, tv.id DESC) AS rn "
+                 + "FROM transaction_verifications tv WHERE tv.note_id IN (:noteIds)) ranked "
+                 + "WHERE ranked.rn = 1",
+           nativeQuery = true)
+    List<TransactionVerification> findLatestByNoteIdIn(@Param("noteIds") Collection<Long> noteIds);
+
     /**
      * Find verification by transaction hash
      */
     Optional<TransactionVerification> findByTxHash(String txHash);
 
+    /**
+     * Transaction hash and id of the verifications for any of the given hashes
+     */
+    @Query("SELECT tv.txHash, tv.id FROM TransactionVerification tv WHERE tv.txHash IN :txHashes")
+    List<Object[]> findIdsByTxHashIn(@Param("txHashes") Collection<String> txHashes);
+
     /**
      * Check if a verification already exists for a transaction hash
      */
@@ -67,6 +87,23 @@ public interface TransactionVerificationRepository extends JpaRepository<Transac
            "ORDER BY tv.retryCount ASC, tv.createdAt ASC")
     List<TransactionVerification> findVerificationsNeedingRetry();
 
+    /**
+     * Same as findVerificationsNeedingRetry, limited to one page (used by the worker)
+     */
+    @Query("SELECT tv FROM TransactionVerification tv WHERE " +
+           "(tv.status = 'PENDING' OR tv.status = 'FAILED') " +
+           "AND tv.retryCount < tv.maxRetries " +
+           "ORDER BY tv.retryCount ASC, tv.createdAt ASC")
+    List<TransactionVerification> findVerificationsNeedingRetry(Pageable pageable);
+
+    /**
+     * Number of verifications needing retry and the creation time of the oldest one
+     */
+    @Query("SELECT COUNT(tv), MIN(tv.createdAt) FROM TransactionVerification tv WHERE " +
+           "(tv.status = 'PENDING' OR tv.status = 'FAILED') " +
+           "AND tv.retryCount < tv.maxRetries")
+    List<Object[]> getRetryQueueSummary();
+
     /**
      * Find verifications that should be marked as expired
      */
@@ -86,4 +123,65 @@ public interface TransactionVerificationRepository extends JpaRepository<Transac
      */
     @Query("SELECT tv FROM TransactionVerification tv ORDER BY tv.createdAt DESC LIMIT :limit")
     List<TransactionVerification> findRecentVerifications(@Param("limit") int limit);
+
+    /**
+     * Lowest id with a specific status, or null if there is none
+     */
+    @Query("SELECT MIN(tv.id) FROM TransactionVerification tv WHERE tv.status = :status")
+    Long findMinIdByStatus(@Param("status") VerificationStatus status);
+
+    /**
+     * Highest id with a specific status, or null if there is none
+     */
+    @Query("SELECT MAX(tv.id) FROM TransactionVerification tv WHERE tv.status = :status")
+    Long findMaxIdByStatus(@Param("status") VerificationStatus status);
+
+    /**
+     * Mark verifications in an id range that have run out of retries as expired
+     */
+    @Modifying
+    @Query("UPDATE TransactionVerification tv SET tv.status = :to, tv.updatedAt = :now " +
+           "WHERE tv.id BETWEEN :fromId AND :toId AND tv.status = :from AND tv.retryCount >= tv.maxRetries")
+    int expireRange(@Param("from") VerificationStatus from,
+                    @Param("to") VerificationStatus to,
+                    @Param("fromId") long fromId,
+                    @Param("toId") long toId,
+                    @Param("now") OffsetDateTime now);
+
+    /**
+     * Move the other verifications of a note that are in a given status and were queued no later than the kept one
+     */
+    @Modifying
+    @Query("UPDATE TransactionVerification tv SET tv.status = :to, tv.updatedAt = :now " +
+           "WHERE tv.noteId = :noteId AND tv.status = :from AND tv.id <> :keepId AND tv.createdAt <= :createdAt")
+    int supersedeOlder(@Param("from") VerificationStatus from,
+                       @Param("to") VerificationStatus to,
+                       @Param("noteId") Long noteId,
+                       @Param("keepId") Long keepId,
+                       @Param("createdAt") OffsetDateTime createdAt,
+                       @Param("now") OffsetDateTime now);
+
+    /**
+     * Move the given verifications from one status to another; rows no longer in {@code from} are left alone
+     */
+    @Modifying
+    @Query("UPDATE TransactionVerification tv SET tv.status = :to, tv.updatedAt = :now " +
+           "WHERE tv.id IN :ids AND tv.status = :from")
+    int transitionIds(@Param("from") VerificationStatus from,
+                      @Param("to") VerificationStatus to,
+                      @Param("ids") Collection<Long> ids,
+                      @Param("now") OffsetDateTime now);
+
+    /**
+     * Move verifications in an id range from one status to another if they have not been updated since the cutoff
+     */
+    @Modifying
+    @Query("UPDATE TransactionVerification tv SET tv.status = :to, tv.updatedAt = :now " +
+           "WHERE tv.id BETWEEN :fromId AND :toId AND tv.status = :from AND tv.updatedAt < :cutoff")
+    int transitionStaleRange(@Param("from") VerificationStatus from,
+                             @Param("to") VerificationStatus to,
+                             @Param("fromId") long fromId,
+                             @Param("toId") long toId,
+                             @Param("cutoff") OffsetDateTime cutoff,
+                             @Param("now") OffsetDateTime now);
 }
@@ -0,0 +1,44 @@
+package com.redmatrix.notesapp.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.redmatrix.notesapp.entity.VerificationRollup;
+import com.redmatrix.notesapp.entity.VerificationRollup.Granularity;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository for VerificationRollup entity.
+ */
+public interface VerificationRollupRepository extends JpaRepository<VerificationRollup, Long> {
+
+    /**
+     * Find a bucket and lock it, so concurrent flushes merge into it one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<VerificationRollup> findByGranularityAndBucketStart(Granularity granularity, OffsetDateTime bucketStart);
+
+    /**
+     * Find the buckets of a granularity starting in [from, to)
+     */
+    @Query("SELECT r FROM VerificationRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart ASC")
+    List<VerificationRollup> findRange(@Param("granularity") Granularity granularity,
+                                       @Param("from") OffsetDateTime from,
+                                       @Param("to") OffsetDateTime to);
+
+    /**
+     * Delete buckets of a granularity that start before the cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM VerificationRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("granularity") Granularity granularity, @Param("cutoff") OffsetDateTime cutoff);
+}
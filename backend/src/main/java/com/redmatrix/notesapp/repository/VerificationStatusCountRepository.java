@@ -0,0 +1,22 @@
+package com.redmatrix.notesapp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+import com.redmatrix.notesapp.entity.VerificationStatusCount;
+
+/**
+ * Repository for the verification statistics summary table.
+ */
+public interface VerificationStatusCountRepository extends JpaRepository<VerificationStatusCount, VerificationStatus> {
+
+    /**
+     * Apply a delta to a status count in place, so concurrent nodes never overwrite each other
+     */
+    @Modifying
+    @Query("UPDATE VerificationStatusCount c SET c.statusCount = c.statusCount + :delta WHERE c.status = :status")
+    int addToCount(@Param("status") VerificationStatus status, @Param("delta") long delta);
+}
@@ -1,79 +1,212 @@
 package com.redmatrix.notesapp.service;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redmatrix.notesapp.diagnostics.BlockfrostCallEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Client for the Blockfrost API.
+ *
+ * Calls go through the JDK HttpClient asynchronously: a request waiting on Blockfrost holds
+ * no thread, and responses are parsed on a small pool ({@code blockfrost.client.threads}),
+ * so any number of lookups can be in flight at once. The blocking variant is for callers
+ * that are on a worker thread anyway, such as the verification worker.
+ */
 @Service
 public class BlockfrostService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(BlockfrostService.class);
-    
-    private final RestTemplate restTemplate;
+
+    private static final TypeReference<List<Map<String, Object>>> METADATA_TYPE = new TypeReference<>() {};
+
+    /**
+     * Cardano transaction hashes: 32 bytes as 64 hex digits.
+     */
+    private static final Pattern TX_HASH = Pattern.compile("[0-9a-fA-F]{64}");
+
+    private static final List<String> OUTCOMES =
+        List.of("success", "not_found", "client_error", "server_error", "io_error", "error");
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
     private final String projectId;
     private final String apiUrl;
-    
+    private final Duration requestTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> metadataTimers = new HashMap<>();
+
     public BlockfrostService(
             @Value("${blockfrost.project.id}") String projectId,
-            @Value("${blockfrost.api.url}") String apiUrl) {
-        this.restTemplate = new RestTemplate();
+            @Value("${blockfrost.api.url}") String apiUrl,
+            @Value("${blockfrost.client.threads:2}") int threads,
+            @Value("${blockfrost.client.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${blockfrost.client.request-timeout:30s}") Duration requestTimeout,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "blockfrost-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(connectTimeout)
+            .executor(executor)
+            .build();
+        this.objectMapper = objectMapper;
         this.projectId = projectId;
         this.apiUrl = apiUrl;
-        
+        this.requestTimeout = requestTimeout;
+        this.meterRegistry = meterRegistry;
+        for (String outcome : OUTCOMES) {
+            metadataTimers.put(outcome, requestTimer("tx_metadata", outcome));
+        }
+
         if (projectId == null || projectId.isEmpty() || projectId.equals("your_blockfrost_project_id_here")) {
             logger.warn("Blockfrost Project ID is not configured. Please set BLOCKFROST_PROJECT_ID environment variable or blockfrost.project.id property.");
         }
     }
-    
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
     /**
-     * Fetch transaction metadata from Blockfrost API
+     * Fetch transaction metadata from Blockfrost API, blocking until it arrives.
      * @param txHash Transaction hash
      * @return List of metadata objects
      */
     public List<Map<String, Object>> getTransactionMetadata(String txHash) {
+        try {
+            return getTransactionMetadataAsync(txHash).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fetch transaction metadata from Blockfrost API without blocking.
+     * The future fails with a RuntimeException whose message starts with "Transaction not found"
+     * for unknown transactions.
+     * @param txHash Transaction hash
+     * @return List of metadata objects, once Blockfrost has answered
+     * @throws IllegalArgumentException if txHash is not a transaction hash
+     * @throws IllegalStateException if no Blockfrost project id is configured
+     */
+    public CompletableFuture<List<Map<String, Object>>> getTransactionMetadataAsync(String txHash) {
+        if (txHash == null || !TX_HASH.matcher(txHash).matches()) {
+            throw new IllegalArgumentException("Invalid transaction hash: expected 64 hex digits");
+        }
         if (projectId == null || projectId.isEmpty() || projectId.equals("your_blockfrost_project_id_here")) {
             throw new IllegalStateException("Blockfrost Project ID not configured. Please set BLOCKFROST_PROJECT_ID environment variable.");
         }
-        
-        String url = apiUrl + "/txs/" + txHash + "/metadata";
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("project_id", projectId);
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-        
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl + "/txs/" + txHash + "/metadata"))
+            .header("project_id", projectId)
+            .header("Accept", "application/json")
+            .timeout(requestTimeout)
+            .GET()
+            .build();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Begun here and committed on whichever thread completes the call
+        BlockfrostCallEvent event = new BlockfrostCallEvent();
+        event.begin();
+        logger.info("Fetching transaction metadata for hash: {}", txHash);
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .handle((response, error) -> {
+                String outcome = "error";
+                int httpStatus = response == null ? 0 : response.statusCode();
+                try {
+                    if (error != null) {
+                        outcome = "io_error";
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        logger.error("Error fetching transaction metadata for hash {}: {}", txHash, cause.toString());
+                        throw new RuntimeException("Failed to fetch transaction metadata: " + cause.getMessage(), cause);
+                    }
+                    if (httpStatus == 404) {
+                        outcome = "not_found";
+                        logger.warn("Transaction not found: {}", txHash);
+                        throw new RuntimeException("Transaction not found: " + txHash);
+                    }
+                    if (httpStatus >= 400) {
+                        outcome = httpStatus < 500 ? "client_error" : "server_error";
+                        String status = statusText(httpStatus);
+                        String body = new String(response.body(), StandardCharsets.UTF_8);
+                        logger.error("Blockfrost API error for hash {}: {} - {}", txHash, status, body);
+                        throw new RuntimeException("Blockfrost API error: " + status + " - " + body);
+                    }
+                    List<Map<String, Object>> metadata = parse(response.body());
+                    outcome = "success";
+                    logger.info("Successfully fetched metadata for transaction: {}", txHash);
+                    return metadata;
+                } finally {
+                    sample.stop(metadataTimers.get(outcome));
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.endpoint = "tx_metadata";
+                        event.txHash = txHash;
+                        event.outcome = outcome;
+                        event.httpStatus = httpStatus;
+                        event.commit();
+                    }
+                }
+            });
+    }
+
+    private List<Map<String, Object>> parse(byte[] body) {
         try {
-            logger.info("Fetching transaction metadata for hash: {}", txHash);
-            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                entity,
-                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
-            );
-            
-            logger.info("Successfully fetched metadata for transaction: {}", txHash);
-            return response.getBody();
-        } catch (HttpClientErrorException.NotFound e) {
-            logger.warn("Transaction not found: {}", txHash);
-            throw new RuntimeException("Transaction not found: " + txHash, e);
-        } catch (HttpClientErrorException | HttpServerErrorException e) {
-            logger.error("Blockfrost API error for hash {}: {} - {}", txHash, e.getStatusCode(), e.getMessage());
-            throw new RuntimeException("Blockfrost API error: " + e.getStatusCode() + " - " + e.getMessage(), e);
-        } catch (RestClientException e) {
-            logger.error("Error fetching transaction metadata for hash {}: {}", txHash, e.getMessage());
-            throw new RuntimeException("Failed to fetch transaction metadata: " + e.getMessage(), e);
+            return body.length == 0 ? null : objectMapper.readValue(body, METADATA_TYPE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to fetch transaction metadata: invalid response: " + e.getMessage(), e);
         }
     }
-}
 
+    private static String statusText(int status) {
+        HttpStatus known = HttpStatus.resolve(status);
+        return known == null ? String.valueOf(status) : status + " " + known.getReasonPhrase();
+    }
+
+    /**
+     * Latency of Blockfrost HTTP calls, tagged by endpoint and outcome.
+     */
+    private Timer requestTimer(String endpoint, String outcome) {
+        return Timer.builder("blockfrost.requests")
+            .description("Blockfrost API call latency")
+            .tag("endpoint", endpoint)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,406 @@
+package com.redmatrix.notesapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.redmatrix.notesapp.service.UploadStore.StoredUpload;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Chunked, resumable image uploads.
+ *
+ * A client starts an upload with the total size, then sends fixed-size chunks at any
+ * offset, in any order and in parallel, each with its SHA-256. Chunks are streamed
+ * straight into a file of the final size with positional writes, so nothing larger than
+ * a copy buffer is held in memory. After a disconnect the client asks which chunks are
+ * missing and sends only those. Completing the upload hands the file to UploadStore.
+ *
+ * Sessions live in memory; a restart abandons them and clears their files.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final String PART_SUFFIX = ".part";
+
+    private final UploadStore uploadStore;
+    private final long maxSize;
+    private final int chunkSize;
+    private final long sessionTtlMillis;
+    private final long abortWaitMillis;
+    private final Semaphore sessionSlots;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * What the client needs to continue an upload: the chunk layout and the chunks still missing.
+     */
+    public record UploadStatus(String uploadId, String contentType, long size, int chunkSize,
+                               int chunkCount, List<Integer> missingChunks) {}
+
+    public ChunkedUploadService(
+            UploadStore uploadStore,
+            @Value("${upload.chunked.max-size:50MB}") DataSize maxSize,
+            @Value("${upload.chunked.chunk-size:1MB}") DataSize chunkSize,
+            @Value("${upload.chunked.session-ttl:1h}") Duration sessionTtl,
+            @Value("${upload.chunked.abort-wait:5s}") Duration abortWait,
+            @Value("${upload.chunked.max-sessions:100}") int maxSessions,
+            MeterRegistry registry) {
+        this.uploadStore = uploadStore;
+        this.maxSize = maxSize.toBytes();
+        this.chunkSize = (int) chunkSize.toBytes();
+        this.sessionTtlMillis = sessionTtl.toMillis();
+        this.abortWaitMillis = abortWait.toMillis();
+        // One permit per session, taken before the session is created and returned when it is removed
+        this.sessionSlots = new Semaphore(maxSessions);
+
+        Gauge.builder("upload.chunked.sessions", sessions, Map::size)
+            .description("Chunked uploads in progress")
+            .register(registry);
+    }
+
+    /**
+     * Remove files of uploads abandoned by a previous run.
+     */
+    @PostConstruct
+    public void clearAbandonedUploads() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadStore.chunkDirectory(), "*" + PART_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                logger.info("Removed abandoned chunked upload {}", file.getFileName());
+            }
+        }
+    }
+
+    /**
+     * Start an upload of {@code size} bytes and allocate its file.
+     */
+    public UploadStatus start(String contentType, long size) throws IOException {
+        if (!uploadStore.isSupportedType(contentType)) {
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("Upload size must be between 1 and " + maxSize + " bytes");
+        }
+        if (!sessionSlots.tryAcquire()) {
+            throw new IllegalStateException("Too many uploads in progress");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        Path file = uploadStore.chunkDirectory().resolve(uploadId + PART_SUFFIX);
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            sessionSlots.release();
+            throw e;
+        }
+        try {
+            // Extend to the final size up front; chunks then only ever write inside the file
+            channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+        } catch (IOException e) {
+            sessionSlots.release();
+            channel.close();
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        Session session = new Session(uploadId, contentType.toLowerCase(), size, file, channel);
+        sessions.put(uploadId, session);
+        logger.info("Started chunked upload {} of {} bytes in {} chunks", uploadId, size, session.chunkCount);
+        return session.status();
+    }
+
+    /**
+     * Write the chunk starting at {@code offset}. The chunk is only counted as received when
+     * its length and SHA-256 match; a chunk sent again simply overwrites the previous attempt.
+     */
+    public UploadStatus writeChunk(String uploadId, long offset, InputStream body, String sha256) throws IOException {
+        Session session = session(uploadId);
+        if (offset < 0 || offset >= session.size || offset % chunkSize != 0) {
+            throw new IllegalArgumentException("Offset must be a multiple of " + chunkSize + " within the upload");
+        }
+        if (sha256 == null || !SHA256_HEX.matcher(sha256.toLowerCase()).matches()) {
+            throw new IllegalArgumentException("Chunk SHA-256 is missing or malformed");
+        }
+        int index = (int) (offset / chunkSize);
+        long expected = Math.min(chunkSize, session.size - offset);
+
+        session.lock.readLock().lock();
+        try {
+            if (session.closed || session.aborted) {
+                throw new NoSuchElementException("Upload not found: " + uploadId);
+            }
+            synchronized (session) {
+                session.received.clear(index);
+            }
+
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[(int) Math.min(COPY_BUFFER_SIZE, expected + 1)];
+            long written = 0;
+            int read;
+            // Ask for one byte more than the chunk can hold, to notice oversized chunks
+            while ((read = body.read(buffer, 0, (int) Math.min(buffer.length, expected - written + 1))) != -1) {
+                if (written + read > expected) {
+                    throw new IllegalArgumentException("Chunk " + index + " is larger than " + expected + " bytes");
+                }
+                if (session.aborted) {
+                    throw new NoSuchElementException("Upload aborted: " + uploadId);
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer pending = ByteBuffer.wrap(buffer, 0, read);
+                long position = offset + written;
+                while (pending.hasRemaining()) {
+                    position += session.channel.write(pending, position);
+                }
+                written += read;
+            }
+            if (written != expected) {
+                throw new IllegalArgumentException("Chunk " + index + " has " + written + " bytes, expected " + expected);
+            }
+            if (!MessageDigest.isEqual(digest.digest(), HexFormat.of().parseHex(sha256.toLowerCase()))) {
+                throw new IllegalArgumentException("Chunk " + index + " does not match its SHA-256");
+            }
+
+            synchronized (session) {
+                session.received.set(index);
+            }
+            session.lastActivity = System.currentTimeMillis();
+            return session.status();
+        } finally {
+            session.lock.readLock().unlock();
+            if (session.aborted) {
+                // Aborted while this chunk was being written; the last writer out removes it
+                discardAborted(session);
+            }
+        }
+    }
+
+    public Optional<UploadStatus> getStatus(String uploadId) {
+        return Optional.ofNullable(sessions.get(uploadId)).filter(session -> !session.aborted).map(Session::status);
+    }
+
+    /**
+     * Finish an upload whose chunks have all been received and store the image. Like abort,
+     * waits at most {@code upload.chunked.abort-wait} for chunks still being written.
+     */
+    public StoredUpload complete(String uploadId) throws IOException {
+        Session session = session(uploadId);
+        if (session.aborted) {
+            throw new NoSuchElementException("Upload not found: " + uploadId);
+        }
+        if (!lockForClose(session)) {
+            throw new IllegalStateException("A chunk of upload " + uploadId + " is still being written");
+        }
+        try {
+            if (session.closed || session.aborted) {
+                throw new NoSuchElementException("Upload not found: " + uploadId);
+            }
+            int missing = session.status().missingChunks().size();
+            if (missing > 0) {
+                throw new IllegalStateException("Upload incomplete, " + missing + " chunks missing");
+            }
+            remove(session);
+            session.completed = true;
+            session.close();
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+        StoredUpload stored = uploadStore.storeFile(session.file, session.contentType);
+        logger.info("Completed chunked upload {} as {}", uploadId, stored.path());
+        return stored;
+    }
+
+    /**
+     * Abandon an upload and delete what was received. False if there is no such upload.
+     *
+     * Chunks being written stop at their next buffer. One stalled on the client's network
+     * holds the session for up to {@code upload.chunked.abort-wait}; after that this throws
+     * IllegalStateException and the upload is removed as soon as that chunk ends.
+     */
+    public boolean abort(String uploadId) throws IOException {
+        Session session = sessions.get(uploadId);
+        if (session == null) {
+            return false;
+        }
+        session.aborted = true;
+        if (!lockForClose(session)) {
+            throw new IllegalStateException("A chunk of upload " + uploadId + " is still being written; "
+                + "the upload will be removed when it ends");
+        }
+        // Already removed by the writer it was waiting for, unless it was completed first
+        return discard(session) || !session.completed;
+    }
+
+    /**
+     * Scheduled task to abandon uploads that have not received a chunk within the session TTL,
+     * and aborted ones their last writer did not get to remove.
+     * Uploads with a chunk being written are skipped rather than waited for: the client is
+     * evidently still there, and waiting would hold up the scheduler thread.
+     */
+    @Scheduled(cron = "${upload.chunked.cleanup-cron:0 0/5 * * * ?}")
+    public void expireSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTtlMillis;
+        for (Session session : sessions.values()) {
+            if (!session.aborted && session.lastActivity >= cutoff) {
+                continue;
+            }
+            if (!session.lock.writeLock().tryLock()) {
+                logger.debug("Not expiring chunked upload {} while a chunk is being written", session.id);
+                continue;
+            }
+            try {
+                if (discard(session)) {
+                    logger.info("Expired chunked upload {}", session.id);
+                }
+            } catch (IOException e) {
+                logger.warn("Could not remove expired chunked upload {}: {}", session.id, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Close and delete a session whose write lock the caller holds; the lock is released
+     * here. False if the session was already closed.
+     */
+    private boolean discard(Session session) throws IOException {
+        Lock lock = session.lock.writeLock();
+        try {
+            if (session.closed) {
+                return false;
+            }
+            remove(session);
+            session.close();
+        } finally {
+            lock.unlock();
+        }
+        Files.deleteIfExists(session.file);
+        return true;
+    }
+
+    /**
+     * Take the session's write lock, waiting at most {@code abortWaitMillis} for chunk writers.
+     */
+    private boolean lockForClose(Session session) {
+        try {
+            return session.lock.writeLock().tryLock(abortWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void discardAborted(Session session) {
+        if (!session.lock.writeLock().tryLock()) {
+            // Another chunk is still being written and will try again
+            return;
+        }
+        try {
+            if (discard(session)) {
+                logger.info("Removed aborted chunked upload {}", session.id);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not remove aborted chunked upload {}: {}", session.id, e.getMessage());
+        }
+    }
+
+    private void remove(Session session) {
+        if (sessions.remove(session.id, session)) {
+            sessionSlots.release();
+        }
+    }
+
+    private Session session(String uploadId) {
+        Session session = sessions.get(uploadId);
+        if (session == null) {
+            throw new NoSuchElementException("Upload not found: " + uploadId);
+        }
+        return session;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * One upload in progress. Chunk writes share the read lock and write in parallel through
+     * the positional FileChannel API; completing or aborting takes the write lock, so the
+     * channel is never closed under a writer.
+     */
+    private final class Session {
+        final String id;
+        final String contentType;
+        final long size;
+        final int chunkCount;
+        final Path file;
+        final FileChannel channel;
+        final BitSet received = new BitSet();
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        volatile long lastActivity = System.currentTimeMillis();
+        // Set by abort before it waits for the write lock, so writers stop early
+        volatile boolean aborted;
+        boolean closed;
+        boolean completed;
+
+        Session(String id, String contentType, long size, Path file, FileChannel channel) {
+            this.id = id;
+            this.contentType = contentType;
+            this.size = size;
+            this.chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+            this.file = file;
+            this.channel = channel;
+        }
+
+        synchronized UploadStatus status() {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = received.nextClearBit(0); i < chunkCount; i = received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+            return new UploadStatus(id, contentType, size, chunkSize, chunkCount, missing);
+        }
+
+        void close() throws IOException {
+            closed = true;
+            channel.close();
+        }
+    }
+}
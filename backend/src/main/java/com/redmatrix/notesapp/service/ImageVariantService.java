@@ -0,0 +1,342 @@
+package com.redmatrix.notesapp.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Downscaled variants of uploaded images, for the notes grid and other places that
+ * do not need the full-size original.
+ *
+ * Variants are written next to the original as {@code <name>.w<width>.<ext>}. They are
+ * generated in the background right after an upload, on a small bounded pool, and
+ * otherwise on first request. Only the configured widths are produced, so requests
+ * cannot make the server render arbitrary sizes. PNG and JPEG are resized with ImageIO;
+ * GIF (animation), WebP (no ImageIO reader) and SVG are always served as uploaded.
+ *
+ * Images that are not wider than a width, cannot be decoded or exceed
+ * {@code upload.variants.max-pixels} get no variant file; the original is served instead.
+ * That decision, and failed generations, are remembered per image (least recently used
+ * dropped past {@code upload.variants.skip-cache-size}) so they are not retried on every request.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    /**
+     * Extensions that are resized, with the ImageIO format used to write them.
+     */
+    private static final Map<String, String> FORMATS = Map.of("png", "png", "jpg", "jpeg");
+
+    private static final Pattern VARIANT_NAME = Pattern.compile(".*\\.w\\d+\\.[a-z]+");
+
+    private final int[] widths;
+    private final long maxPixels;
+    private final long requestTimeoutMillis;
+    private final ThreadPoolExecutor executor;
+    private final Map<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    /**
+     * Originals served as uploaded from this width up: their own width, or 0 for every width.
+     */
+    private final Map<Path, Integer> servedAsUploaded;
+    private final ReentrantLock servedAsUploadedLock = new ReentrantLock();
+    private final Timer generateTimer;
+    private final Map<String, Map<Integer, Counter>> generatedCounters = new HashMap<>();
+
+    public ImageVariantService(
+            @Value("${upload.variants.widths:320,960}") int[] widths,
+            @Value("${upload.variants.threads:2}") int threads,
+            @Value("${upload.variants.queue-capacity:200}") int queueCapacity,
+            @Value("${upload.variants.max-pixels:40000000}") long maxPixels,
+            @Value("${upload.variants.request-timeout:5s}") Duration requestTimeout,
+            @Value("${upload.variants.skip-cache-size:10000}") int skipCacheSize,
+            MeterRegistry registry) {
+        this.widths = Arrays.stream(widths).sorted().distinct().toArray();
+        this.maxPixels = maxPixels;
+        this.requestTimeoutMillis = requestTimeout.toMillis();
+        this.servedAsUploaded = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Integer> eldest) {
+                return size() > skipCacheSize;
+            }
+        };
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        this.generateTimer = Timer.builder("upload.variant.generate")
+            .description("Time to decode, resize and write one image variant")
+            .register(registry);
+        Gauge.builder("upload.variant.queue", executor, e -> e.getQueue().size())
+            .description("Image variants waiting to be generated")
+            .register(registry);
+        for (String trigger : new String[] {"upload", "request"}) {
+            Map<Integer, Counter> byWidth = new HashMap<>();
+            for (int width : this.widths) {
+                byWidth.put(width, Counter.builder("upload.variant.generated")
+                    .description("Image variants generated, by width and by what triggered the generation")
+                    .tag("width", String.valueOf(width))
+                    .tag("trigger", trigger)
+                    .register(registry));
+            }
+            generatedCounters.put(trigger, byWidth);
+        }
+    }
+
+    /**
+     * Queue every configured variant of a new upload. Variants that do not fit in the
+     * queue are skipped and generated on first request instead.
+     */
+    public void generateAsync(Path original) {
+        if (!isResizable(original)) {
+            return;
+        }
+        for (int width : widths) {
+            if (isServedAsUploaded(original, width)) {
+                continue;
+            }
+            try {
+                submit(original, width, "upload");
+            } catch (RejectedExecutionException e) {
+                logger.debug("Variant queue full, {} w{} will be generated on request", original.getFileName(), width);
+            }
+        }
+    }
+
+    /**
+     * The configured width to serve for a requested width: the smallest one that is at
+     * least as wide, or 0 (the original) if the request is wider than all of them.
+     */
+    public int snapWidth(int requested) {
+        for (int width : widths) {
+            if (width >= requested) {
+                return width;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The file to serve for {@code original} at a configured width, generating the variant if
+     * needed. Falls back to the original when the format is not resized, the image gets no
+     * variant at this width, generation fails, or the variant is not ready within the request
+     * timeout.
+     */
+    public Path variantFor(Path original, int width) {
+        if (width <= 0 || !isResizable(original) || isServedAsUploaded(original, width)) {
+            return original;
+        }
+        Path variant = variantPath(original, width);
+        if (Files.exists(variant)) {
+            return variant;
+        }
+        try {
+            return submit(original, width, "request").get(requestTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            logger.debug("Variant {} not ready, serving the original", variant.getFileName());
+        } catch (ExecutionException e) {
+            // Already logged by the generating task
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return original;
+    }
+
+    /**
+     * Path of the variant of {@code original} at {@code width}: {@code <name>.w<width>.<ext>} next to it.
+     */
+    public static Path variantPath(Path original, int width) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return original.resolveSibling(name.substring(0, dot) + ".w" + width + name.substring(dot));
+    }
+
+    private boolean isResizable(Path original) {
+        return FORMATS.containsKey(extension(original)) && !VARIANT_NAME.matcher(original.getFileName().toString()).matches();
+    }
+
+    private boolean isServedAsUploaded(Path original, int width) {
+        servedAsUploadedLock.lock();
+        try {
+            Integer from = servedAsUploaded.get(original);
+            return from != null && width >= from;
+        } finally {
+            servedAsUploadedLock.unlock();
+        }
+    }
+
+    private void serveAsUploaded(Path original, int fromWidth) {
+        servedAsUploadedLock.lock();
+        try {
+            servedAsUploaded.merge(original, fromWidth, Math::min);
+        } finally {
+            servedAsUploadedLock.unlock();
+        }
+    }
+
+    private CompletableFuture<Path> submit(Path original, int width, String trigger) {
+        Path variant = variantPath(original, width);
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(variant, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(generate(original, variant, width, trigger));
+                } catch (Throwable t) {
+                    logger.warn("Could not generate variant {}: {}", variant.getFileName(), t.getMessage());
+                    // Not retried at any width; a corrupt image would otherwise be decoded on every request
+                    serveAsUploaded(original, 0);
+                    created.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(variant, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(variant, created);
+            throw e;
+        }
+        return created;
+    }
+
+    private Path generate(Path original, Path variant, int width, String trigger) throws IOException {
+        if (Files.exists(variant)) {
+            return variant;
+        }
+        long started = System.nanoTime();
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot read " + original.getFileName());
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                logger.info("No reader for {}, serving it as uploaded", original.getFileName());
+                serveAsUploaded(original, 0);
+                return original;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    logger.info("Not resizing {} ({}x{}), serving it as uploaded", original.getFileName(), sourceWidth, sourceHeight);
+                    serveAsUploaded(original, 0);
+                    return original;
+                }
+                if (sourceWidth <= width) {
+                    // Never upscale; wider variants would be the original too
+                    serveAsUploaded(original, sourceWidth);
+                    return original;
+                }
+                Path temp = Files.createTempFile(variant.getParent(), "variant-", ".part");
+                try {
+                    // Decode at no less than twice the target width, then smooth the rest
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int subsampling = Math.max(1, sourceWidth / (width * 2));
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    BufferedImage decoded = reader.read(0, param);
+                    int height = Math.max(1, (int) Math.round((double) sourceHeight * width / sourceWidth));
+                    String format = FORMATS.get(extension(original));
+                    BufferedImage resized = resize(decoded, width, height, "png".equals(format));
+                    if (!ImageIO.write(resized, format, temp.toFile())) {
+                        throw new IOException("No image writer for " + format);
+                    }
+                    Files.move(temp, variant, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+        generateTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        generatedCounters.get(trigger).get(width).increment();
+        logger.debug("Generated {} for {}", variant.getFileName(), trigger);
+        return variant;
+    }
+
+    /**
+     * Downscale in halving steps with bilinear filtering, which keeps thin lines and text
+     * in screenshots readable without the cost of bicubic or area averaging.
+     */
+    private static BufferedImage resize(BufferedImage source, int width, int height, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (currentWidth > width || currentHeight > height);
+        return current;
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
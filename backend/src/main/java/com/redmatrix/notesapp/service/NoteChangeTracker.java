@@ -0,0 +1,284 @@
+package com.redmatrix.notesapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redmatrix.notesapp.entity.Note;
+import com.redmatrix.notesapp.entity.NoteChangeCounter;
+import com.redmatrix.notesapp.entity.NoteTombstone;
+import com.redmatrix.notesapp.repository.NoteChangeCounterRepository;
+import com.redmatrix.notesapp.repository.NoteRepository;
+import com.redmatrix.notesapp.repository.NoteTombstoneRepository;
+
+/**
+ * Change feed for incremental note sync.
+ *
+ * Every write to a note stamps it with the next value of a change sequence, and every
+ * delete leaves a tombstone with one. The sequence is a counter row incremented by the
+ * writing transaction; the row lock is held until commit, so sequence order is commit
+ * order and a client that has read up to a cursor never misses a change that commits
+ * later with a lower value. To keep that lock short, writers only register their changes;
+ * the counter is incremented and the notes and tombstones stamped as the last statements
+ * before the commit. Everything one transaction changes shares a value, which is why
+ * cursors also carry the note id.
+ *
+ * Tombstones are purged after {@code notes.changes.tombstone-retention}; a cursor whose
+ * client may have missed a purged deletion is rejected and the client has to sync from scratch.
+ */
+@Service
+public class NoteChangeTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteChangeTracker.class);
+
+    /**
+     * Most notes stamped by one UPDATE statement.
+     */
+    private static final int STAMP_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private NoteTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private NoteChangeCounterRepository counterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Largest number of changes returned by one call.
+     */
+    @Value("${notes.changes.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * How long tombstones of deleted notes are kept.
+     */
+    @Value("${notes.changes.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
+
+    /**
+     * Position in the change feed, written as {@code <seq>-<noteId>-<syncedAt>}: every change
+     * up to {@code seq}/{@code noteId} has been read, and the client's copy was complete as of
+     * sequence {@code syncedAt} (the start of the sync, while paging). Only deletions after
+     * {@code syncedAt} can concern notes the client holds, so purging tombstones invalidates
+     * cursors by that value. A bare {@code <seq>}, such as a note's changeSeq, means every
+     * change with that sequence has been read.
+     */
+    public record ChangeCursor(long seq, long noteId, long syncedAt) {
+
+        /**
+         * No local copy yet; deletions so far do not matter.
+         */
+        public static final ChangeCursor START = new ChangeCursor(0, 0, -1);
+
+        public static ChangeCursor parse(String value) {
+            if (value == null || value.isBlank()) {
+                return START;
+            }
+            try {
+                String[] parts = value.split("-");
+                ChangeCursor cursor;
+                if (parts.length == 1) {
+                    long seq = Long.parseLong(parts[0]);
+                    cursor = new ChangeCursor(seq, Long.MAX_VALUE, seq);
+                } else if (parts.length == 3) {
+                    cursor = new ChangeCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                } else {
+                    throw new IllegalArgumentException("Invalid change cursor: " + value);
+                }
+                if (cursor.seq() < 0 || cursor.noteId() < 0 || cursor.syncedAt() < 0) {
+                    throw new IllegalArgumentException("Invalid change cursor: " + value);
+                }
+                return cursor;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid change cursor: " + value);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return seq + "-" + noteId + "-" + syncedAt;
+        }
+    }
+
+    /**
+     * Notes created or updated and ids of notes deleted after a cursor, and the cursor to continue from.
+     */
+    public record ChangePage(List<Note> notes, List<Long> deleted, String nextCursor, boolean hasMore) {}
+
+    /**
+     * Give a note written in the current transaction a change sequence when it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void noteChanged(Note note) {
+        pendingChanges().notes.add(note);
+    }
+
+    /**
+     * Give notes written by id in the current transaction a change sequence when it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notesChanged(Collection<Long> noteIds) {
+        pendingChanges().noteIds.addAll(noteIds);
+    }
+
+    /**
+     * Leave a tombstone for a note deleted in the current transaction when it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Long noteId) {
+        pendingChanges().deletedIds.add(noteId);
+    }
+
+    /**
+     * The changes collected in the current transaction, registered with it on first use.
+     */
+    private PendingChanges pendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending && pending.tracker() == this) {
+                return pending;
+            }
+        }
+        PendingChanges pending = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    /**
+     * Notes changed and deleted by one transaction. Just before it commits, they all get the
+     * next sequence value: the counter row is locked by the last few statements only.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Set<Note> notes = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<Long> noteIds = new TreeSet<>();
+        private final Set<Long> deletedIds = new TreeSet<>();
+
+        NoteChangeTracker tracker() {
+            return NoteChangeTracker.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Write the notes themselves before the counter row is locked
+            noteRepository.flush();
+            counterRepository.increment(NoteChangeCounter.SEQUENCE);
+            long seq = counterRepository.currentValue(NoteChangeCounter.SEQUENCE);
+
+            for (Note note : notes) {
+                if (note.getId() != null) {
+                    noteIds.add(note.getId());
+                }
+                note.setChangeSeq(seq);
+            }
+            List<Long> ids = new ArrayList<>(noteIds);
+            for (int i = 0; i < ids.size(); i += STAMP_CHUNK_SIZE) {
+                noteRepository.updateChangeSeq(ids.subList(i, Math.min(i + STAMP_CHUNK_SIZE, ids.size())), seq);
+            }
+            OffsetDateTime now = Instant.now().atOffset(ZoneOffset.UTC);
+            tombstoneRepository.saveAll(deletedIds.stream().map(noteId -> new NoteTombstone(noteId, seq, now)).toList());
+        }
+    }
+
+    /**
+     * Changes after {@code since}, oldest first, at most {@code limit} of them.
+     */
+    @Transactional(readOnly = true)
+    public ChangePage getChanges(String since, int limit) {
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        ChangeCursor cursor = ChangeCursor.parse(since);
+        Long horizon = counterRepository.currentValue(NoteChangeCounter.TOMBSTONE_HORIZON);
+        if (cursor.syncedAt() >= 0 && horizon != null && cursor.syncedAt() < horizon) {
+            throw new IllegalStateException("Cursor " + cursor + " is older than the retained deletions, sync from the start");
+        }
+        // Read first: anything committed after this has a higher sequence
+        Long current = counterRepository.currentValue(NoteChangeCounter.SEQUENCE);
+        long currentSeq = current == null ? 0 : current;
+
+        // One extra row from each side tells whether there is more
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Note> notes = noteRepository.findChangedAfter(cursor.seq(), cursor.noteId(), page);
+        List<NoteTombstone> tombstones = tombstoneRepository.findChangedAfter(cursor.seq(), cursor.noteId(), page);
+
+        List<Note> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        long seq = cursor.seq();
+        long noteId = cursor.noteId();
+        int n = 0;
+        int t = 0;
+        while (changed.size() + deleted.size() < limit && (n < notes.size() || t < tombstones.size())) {
+            Note note = n < notes.size() ? notes.get(n) : null;
+            NoteTombstone tombstone = t < tombstones.size() ? tombstones.get(t) : null;
+            boolean takeNote = tombstone == null || (note != null && compare(note.getChangeSeq(), note.getId(),
+                tombstone.getChangeSeq(), tombstone.getNoteId()) < 0);
+            if (takeNote) {
+                changed.add(note);
+                seq = note.getChangeSeq();
+                noteId = note.getId();
+                n++;
+            } else {
+                deleted.add(tombstone.getNoteId());
+                seq = tombstone.getChangeSeq();
+                noteId = tombstone.getNoteId();
+                t++;
+            }
+        }
+        boolean hasMore = n < notes.size() || t < tombstones.size();
+        // Caught up: the client's copy is complete as of the sequence read above
+        long syncedAt = !hasMore || cursor.syncedAt() < 0 ? currentSeq : cursor.syncedAt();
+        return new ChangePage(changed, deleted, new ChangeCursor(seq, noteId, syncedAt).toString(), hasMore);
+    }
+
+    private static int compare(long seqA, long idA, long seqB, long idB) {
+        int bySeq = Long.compare(seqA, seqB);
+        return bySeq != 0 ? bySeq : Long.compare(idA, idB);
+    }
+
+    /**
+     * Scheduled task to drop tombstones older than the retention. Cursors synced before the
+     * newest dropped tombstone are rejected from then on.
+     */
+    @Scheduled(cron = "${notes.changes.purge-cron:0 45 3 * * ?}")
+    public int purgeTombstones() {
+        OffsetDateTime cutoff = Instant.now().minus(tombstoneRetention).atOffset(ZoneOffset.UTC);
+        Integer purged = transactionTemplate.execute(tx -> {
+            Long upTo = tombstoneRepository.findMaxChangeSeqDeletedBefore(cutoff);
+            if (upTo == null) {
+                return 0;
+            }
+            counterRepository.raiseTo(NoteChangeCounter.TOMBSTONE_HORIZON, upTo);
+            return tombstoneRepository.deleteUpToChangeSeq(upTo);
+        });
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} note tombstones deleted before {}", purged, cutoff);
+        }
+        return purged == null ? 0 : purged;
+    }
+}
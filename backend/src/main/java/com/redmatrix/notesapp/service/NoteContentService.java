@@ -0,0 +1,152 @@
+package com.redmatrix.notesapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Reads note content as a byte stream, for notes too large to pass around as a String.
+ *
+ * The version and byte length are read first, so the caller can pick a range before any
+ * content is fetched. A range is then selected in the database with SUBSTRING over the
+ * content's bytes, so a request for the first 64 KB of a 50 MB note only transfers 64 KB.
+ * The whole content is read through a streaming statement, which on MySQL needs a fetch
+ * size of Integer.MIN_VALUE (as for the NDJSON export) to keep Connector/J from buffering
+ * the result. Either way {@code ResultSet.getBinaryStream} hands back the UTF-8 bytes
+ * without decoding them into a String.
+ */
+@Service
+public class NoteContentService {
+
+    private static final String VERSION_SQL = "SELECT change_seq FROM notes WHERE id = ?";
+
+    private static final String INFO_SQL =
+        "SELECT change_seq, OCTET_LENGTH(content) AS content_length FROM notes WHERE id = ?";
+
+    private static final String CONTENT_SQL = "SELECT content FROM notes WHERE id = ?";
+
+    // SUBSTRING counts characters on text, so the content is cast to bytes first; positions start at 1
+    private static final String RANGE_SQL =
+        "SELECT SUBSTRING(CAST(content AS %s), ?, ?) AS content FROM notes WHERE id = ?";
+
+    private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate streamingJdbcTemplate;
+    private String rangeSql;
+
+    @PostConstruct
+    public void configureStreaming() throws Exception {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> metaData.getDatabaseProductName());
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // Connector/J only streams with this fetch size; other drivers read LOBs lazily anyway
+        boolean mysql = "MySQL".equalsIgnoreCase(product);
+        if (mysql) {
+            streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        }
+        // A bare BINARY is the whole string on MySQL but a single byte in standard SQL (H2)
+        rangeSql = RANGE_SQL.formatted(mysql ? "BINARY" : "BLOB");
+    }
+
+    /**
+     * Version and size in bytes of a note's content. The version changes on every write to the note.
+     */
+    public record ContentInfo(long changeSeq, long length) {}
+
+    /**
+     * Where to copy content to: bytes {@code start} to {@code end}, both inclusive.
+     */
+    public record ContentSink(OutputStream out, long start, long end) {}
+
+    /**
+     * Decides, once the content's version and size are known, which bytes to copy where.
+     * Returns null to copy nothing.
+     */
+    @FunctionalInterface
+    public interface ContentTarget {
+        ContentSink open(ContentInfo info) throws IOException;
+    }
+
+    /**
+     * Current version of a note, without reading its content. Empty if there is no such note.
+     */
+    public Optional<Long> getVersion(Long id) {
+        List<Long> versions = jdbcTemplate.queryForList(VERSION_SQL, Long.class, id);
+        return versions.stream().findFirst().map(seq -> seq == null ? 0L : seq);
+    }
+
+    /**
+     * Read a note's content and copy the part {@code target} asks for. Version, length and
+     * bytes are read in one read-only transaction, so on MySQL (repeatable read) they come
+     * from the same snapshot of the row. False if there is no such note.
+     */
+    @Transactional(readOnly = true)
+    public boolean writeContent(Long id, ContentTarget target) throws IOException {
+        List<ContentInfo> infos = jdbcTemplate.query(INFO_SQL,
+            (rs, rowNum) -> new ContentInfo(rs.getLong("change_seq"), rs.getLong("content_length")), id);
+        if (infos.isEmpty()) {
+            return false;
+        }
+        ContentInfo info = infos.get(0);
+        ContentSink sink = target.open(info);
+        if (sink == null || info.length() == 0) {
+            return true;
+        }
+
+        long count = sink.end() - sink.start() + 1;
+        boolean whole = sink.start() == 0 && count >= info.length();
+        try {
+            List<Boolean> found = whole
+                ? streamingJdbcTemplate.query(CONTENT_SQL, (rs, rowNum) -> copy(rs.getBinaryStream("content"), sink.out(), count), id)
+                : jdbcTemplate.query(rangeSql, (rs, rowNum) -> copy(rs.getBinaryStream("content"), sink.out(), count),
+                    sink.start() + 1, count, id);
+            return !found.isEmpty();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Boolean copy(InputStream in, OutputStream out, long count) {
+        if (in == null) {
+            return Boolean.TRUE;
+        }
+        try (in) {
+            copyRange(in, out, count);
+        } catch (IOException e) {
+            // Usually the client going away; stops the query
+            throw new UncheckedIOException(e);
+        }
+        return Boolean.TRUE;
+    }
+
+    private static void copyRange(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+}
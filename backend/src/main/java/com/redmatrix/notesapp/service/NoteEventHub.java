@@ -0,0 +1,392 @@
+package com.redmatrix.notesapp.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redmatrix.notesapp.entity.Note;
+import com.redmatrix.notesapp.entity.TransactionVerification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans note and verification changes out to Server-Sent Events subscribers, so clients
+ * learn about a note becoming VERIFIED without polling.
+ *
+ * Subscribers pick note ids and/or an owner wallet; publishing only looks at the
+ * subscribers indexed under the event's note and wallet. An event is serialized once
+ * and the same message is queued for every matching subscriber. Each subscriber has a
+ * fixed-size ring buffer drained by a small sender pool, so a slow client never blocks
+ * the publisher: when its buffer is full the oldest message is dropped, and the client
+ * is told how many it missed (an {@code overflow} event) so it can refetch.
+ */
+@Component
+public class NoteEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteEventHub.class);
+
+    /**
+     * A change pushed to subscribers. {@code type} is the SSE event name.
+     */
+    public record NoteEvent(String type, Long noteId, String ownerWallet, String status,
+                            Long verificationId, String txHash, OffsetDateTime at) {
+
+        public static NoteEvent note(String type, Note note) {
+            return new NoteEvent(type, note.getId(), note.getOwnerWallet(), note.getVerificationStatus(),
+                null, note.getLastTxHash(), Instant.now().atOffset(ZoneOffset.UTC));
+        }
+
+        public static NoteEvent deleted(Long noteId) {
+            return new NoteEvent("note.deleted", noteId, null, null, null, null, Instant.now().atOffset(ZoneOffset.UTC));
+        }
+
+        public static NoteEvent verification(TransactionVerification verification) {
+            return new NoteEvent("verification", verification.getNoteId(), verification.getOwnerWallet(),
+                verification.getStatus() == null ? null : verification.getStatus().name(),
+                verification.getId(), verification.getTxHash(), Instant.now().atOffset(ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * A serialized event, shared by every subscriber it is queued for.
+     */
+    private record Message(long id, String type, String json) {}
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor sender;
+    private final Counter droppedCounter;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /**
+     * Streams counted against {@code maxSubscribers}, reserved before a subscriber is added.
+     */
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final Map<Long, Set<Subscriber>> byNote = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> byWallet = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public NoteEventHub(
+            ObjectMapper objectMapper,
+            @Value("${notes.events.buffer-size:64}") int bufferSize,
+            @Value("${notes.events.max-subscribers:1000}") int maxSubscribers,
+            @Value("${notes.events.timeout:30m}") Duration timeout,
+            @Value("${notes.events.sender-threads:2}") int senderThreads,
+            MeterRegistry registry) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Each subscriber is queued at most once, so the queue is bounded by the subscriber count
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "note-events-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        this.droppedCounter = Counter.builder("notes.events.dropped")
+            .description("Events dropped because a subscriber's buffer was full")
+            .register(registry);
+        Gauge.builder("notes.events.subscribers", subscribers, Set::size)
+            .description("Open note event streams")
+            .register(registry);
+    }
+
+    /**
+     * Open a stream of the events for the given notes and/or owner wallet.
+     */
+    public SseEmitter subscribe(Set<Long> noteIds, String wallet) {
+        if (noteIds.isEmpty() && (wallet == null || wallet.isBlank())) {
+            throw new IllegalArgumentException("Subscribe to at least one note id or a wallet");
+        }
+        if (openStreams.incrementAndGet() > maxSubscribers) {
+            openStreams.decrementAndGet();
+            throw new IllegalStateException("Too many event subscribers");
+        }
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(noteIds), wallet == null || wallet.isBlank() ? null : wallet);
+        // Held until the first comment is sent, so no drain writes to the emitter before it
+        subscriber.scheduled.set(true);
+        // Registered before anything is sent, so an emitter that completes early is still removed
+        subscribers.add(subscriber);
+        // Added inside compute, so a concurrent unsubscribe cannot drop the set being added to
+        for (Long noteId : subscriber.noteIds) {
+            byNote.compute(noteId, (id, set) -> withSubscriber(set, subscriber));
+        }
+        if (subscriber.wallet != null) {
+            byWallet.compute(subscriber.wallet, (w, set) -> withSubscriber(set, subscriber));
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        try {
+            // Sent when the stream opens, so clients get the response headers right away
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(subscriber);
+            throw new IllegalStateException("Could not open event stream", e);
+        }
+        release(subscriber);
+        logger.debug("Event subscriber added for notes {} and wallet {}", subscriber.noteIds, subscriber.wallet);
+        return emitter;
+    }
+
+    /**
+     * Overridden in tests to see what is sent to each subscriber.
+     */
+    SseEmitter newEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    private static Set<Subscriber> withSubscriber(Set<Subscriber> set, Subscriber subscriber) {
+        Set<Subscriber> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+        result.add(subscriber);
+        return result;
+    }
+
+    /**
+     * Publish an event once the current transaction commits, or right away outside one.
+     */
+    public void publish(NoteEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(NoteEvent event) {
+        Set<Subscriber> forNote = event.noteId() == null ? null : byNote.get(event.noteId());
+        Set<Subscriber> forWallet = event.ownerWallet() == null ? null : byWallet.get(event.ownerWallet());
+        if ((forNote == null || forNote.isEmpty()) && (forWallet == null || forWallet.isEmpty())) {
+            return;
+        }
+
+        Message message;
+        try {
+            message = new Message(sequence.incrementAndGet(), event.type(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize {} event for note {}: {}", event.type(), event.noteId(), e.getMessage());
+            return;
+        }
+        if (forNote != null) {
+            forNote.forEach(subscriber -> enqueue(subscriber, message));
+        }
+        if (forWallet != null) {
+            for (Subscriber subscriber : forWallet) {
+                // Already queued through its note ids
+                if (forNote == null || !forNote.contains(subscriber)) {
+                    enqueue(subscriber, message);
+                }
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Message message) {
+        if (subscriber.offer(message)) {
+            droppedCounter.increment();
+        }
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber, false));
+        }
+    }
+
+    /**
+     * Send everything queued for a subscriber, or a keepalive comment if nothing was.
+     */
+    private void drain(Subscriber subscriber, boolean keepalive) {
+        try {
+            boolean sent = false;
+            while (true) {
+                // Checked before every message, so the client hears of a gap where it happened
+                long dropped = subscriber.takeDropped();
+                if (dropped > 0) {
+                    subscriber.emitter.send(SseEmitter.event().name("overflow").data("{\"dropped\":" + dropped + "}"));
+                    sent = true;
+                }
+                Message message = subscriber.poll();
+                if (message == null) {
+                    break;
+                }
+                subscriber.emitter.send(SseEmitter.event()
+                    .id(Long.toString(message.id()))
+                    .name(message.type())
+                    .data(message.json()));
+                sent = true;
+            }
+            if (keepalive && !sent) {
+                subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client gone, or the emitter already completed
+            logger.debug("Dropping event subscriber: {}", e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.scheduled.set(false);
+            subscriber.emitter.completeWithError(e);
+            return;
+        }
+        release(subscriber);
+    }
+
+    /**
+     * Clear the scheduled flag, draining again if messages were queued after the last poll
+     * but before the flag was cleared (their enqueue saw the flag still set).
+     */
+    private void release(Subscriber subscriber) {
+        subscriber.scheduled.set(false);
+        if (!subscriber.isEmpty() && subscriber.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber, false));
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        openStreams.decrementAndGet();
+        for (Long noteId : subscriber.noteIds) {
+            byNote.computeIfPresent(noteId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        if (subscriber.wallet != null) {
+            byWallet.computeIfPresent(subscriber.wallet, (w, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * Scheduled task to send a comment to idle streams, so proxies keep them open and
+     * disconnected clients are noticed.
+     */
+    @Scheduled(fixedDelayString = "${notes.events.heartbeat:15s}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isEmpty() && subscriber.scheduled.compareAndSet(false, true)) {
+                // Through drain, so events queued while the keepalive is sent are not left behind
+                sender.execute(() -> drain(subscriber, true));
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Close open streams before the web server stops, so shutdown does not wait on them.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        subscribers.forEach(subscriber -> {
+            unsubscribe(subscriber);
+            subscriber.emitter.complete();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * One open stream. {@code scheduled} is set while a drain task is queued or running,
+     * so at most one sender thread writes to the emitter at a time.
+     */
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Set<Long> noteIds;
+        final String wallet;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Message[] buffer = new Message[bufferSize];
+        private int head;
+        private int size;
+        private long dropped;
+
+        Subscriber(SseEmitter emitter, Set<Long> noteIds, String wallet) {
+            this.emitter = emitter;
+            this.noteIds = noteIds;
+            this.wallet = wallet;
+        }
+
+        /**
+         * Queue a message, overwriting the oldest one when full. Returns true if one was dropped.
+         */
+        synchronized boolean offer(Message message) {
+            boolean full = size == buffer.length;
+            if (full) {
+                head = (head + 1) % buffer.length;
+                size--;
+                dropped++;
+            }
+            buffer[(head + size) % buffer.length] = message;
+            size++;
+            return full;
+        }
+
+        synchronized Message poll() {
+            if (size == 0) {
+                return null;
+            }
+            Message message = buffer[head];
+            buffer[head] = null;
+            head = (head + 1) % buffer.length;
+            size--;
+            return message;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+
+        synchronized long takeDropped() {
+            long taken = dropped;
+            dropped = 0;
+            return taken;
+        }
+    }
+}
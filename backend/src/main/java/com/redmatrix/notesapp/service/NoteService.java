@@ -4,11 +4,16 @@ import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.redmatrix.notesapp.diagnostics.NoteSaveEvent;
 import com.redmatrix.notesapp.entity.Note;
 import com.redmatrix.notesapp.repository.NoteRepository;
+import com.redmatrix.notesapp.service.NoteEventHub.NoteEvent;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service    
 public class NoteService {
@@ -16,13 +21,21 @@ public class NoteService {
   
     @Autowired
     private NoteRepository noteRepository;
+
+    @Autowired
+    private NoteEventHub noteEventHub;
+
+    @Autowired
+    private NoteChangeTracker changeTracker;
     
     // Get all notes
+    @Timed(value = "notes.service", extraTags = {"operation", "list"}, histogram = true)
     public List<Note> getAllNotes() {
         return noteRepository.findAllByOrderByUpdatedAtDesc();
     }
     
     // Get note by ID
+    @Timed(value = "notes.service", extraTags = {"operation", "get"}, histogram = true)
     public Optional<Note> getNoteById(Long id) {
         if (id == null) {
             throw new IllegalArgumentException("Note ID cannot be null");
@@ -31,16 +44,21 @@ public class NoteService {
     }
     
     // Create new note
+    @Timed(value = "notes.service", extraTags = {"operation", "create"}, histogram = true)
+    @Transactional
     public Note createNote(Note note) {
         validateNote(note);
         logger.info("Creating note with title: {}", note.getTitle());
         
-        Note savedNote = noteRepository.save(note);
+        Note savedNote = saveNote(note, "create");
+        noteEventHub.publish(NoteEvent.note("note.created", savedNote));
         logger.info("Created note with ID: {} with txHash: {}", savedNote.getId(), savedNote.getLastTxHash());
         return savedNote;
     }
     
     // Update existing note
+    @Timed(value = "notes.service", extraTags = {"operation", "update"}, histogram = true)
+    @Transactional
     public Note updateNote(Long id, Note noteDetails) {
         if (id == null) {
             throw new IllegalArgumentException("Note ID cannot be null");
@@ -66,7 +84,8 @@ public class NoteService {
                 note.setOwnerWallet(noteDetails.getOwnerWallet());
             }
             
-            Note savedNote = noteRepository.save(note);
+            Note savedNote = saveNote(note, "update");
+            noteEventHub.publish(NoteEvent.note("note.updated", savedNote));
             logger.info("Successfully updated note with ID: {}", id);
             return savedNote;
         }
@@ -76,6 +95,8 @@ public class NoteService {
     }
     
     // Delete note
+    @Timed(value = "notes.service", extraTags = {"operation", "delete"}, histogram = true)
+    @Transactional
     public void deleteNote(Long id) {
         if (id == null) {
             throw new IllegalArgumentException("Note ID cannot be null");
@@ -84,6 +105,8 @@ public class NoteService {
         
         if (noteRepository.existsById(id)) {
             noteRepository.deleteById(id);
+            changeTracker.recordDeletion(id);
+            noteEventHub.publish(NoteEvent.deleted(id));
             logger.info("Successfully deleted note with ID: {}", id);
         } else {
             logger.error("Note not found for deletion with ID: {}", id);
@@ -92,6 +115,7 @@ public class NoteService {
     }
     
     // Search notes
+    @Timed(value = "notes.service", extraTags = {"operation", "search"}, histogram = true)
     public List<Note> searchNotes(String keyword) {
         if (!StringUtils.hasText(keyword)) {
             logger.warn("Search attempted with empty keyword");
@@ -102,6 +126,22 @@ public class NoteService {
         return noteRepository.searchNotes(keyword);
     }
     
+    // Save a note, recording the write as a JFR event; it gets its change sequence on commit
+    private Note saveNote(Note note, String operation) {
+        NoteSaveEvent event = new NoteSaveEvent();
+        event.begin();
+        Note savedNote = noteRepository.save(note);
+        event.end();
+        if (event.shouldCommit()) {
+            event.noteId = savedNote.getId() == null ? 0 : savedNote.getId();
+            event.operation = operation;
+            event.contentLength = note.getContent() == null ? 0 : note.getContent().length();
+            event.commit();
+        }
+        changeTracker.noteChanged(savedNote);
+        return savedNote;
+    }
+    
     // Private helper method for validation
     private void validateNote(Note note) {
         if (note == null) {
@@ -0,0 +1,116 @@
+package com.redmatrix.notesapp.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redmatrix.notesapp.repository.NoteRepository;
+
+/**
+ * Writes verification results to {@code notes.verification_status} with targeted
+ * UPDATE statements instead of loading and saving the whole note.
+ *
+ * Outside a batch every change is a single small UPDATE in the caller's transaction.
+ * Either way the notes get a new change sequence, so the change feed reports them.
+ * The worker opens a batch for each cycle: changes from committed verifications are
+ * collected per note (last one wins) and written with one UPDATE per status when the
+ * cycle ends.
+ */
+@Component
+public class NoteStatusPropagator {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteStatusPropagator.class);
+
+    static final String VERIFIED = "VERIFIED";
+    static final String UNVERIFIED = "UNVERIFIED";
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NoteChangeTracker changeTracker;
+
+    /**
+     * Maximum number of ids in a single IN list.
+     */
+    @Value("${verification.note-status.max-batch:1000}")
+    private int maxBatch;
+
+    private final ThreadLocal<Map<Long, String>> batch = new ThreadLocal<>();
+
+    /**
+     * Start collecting note status changes on the current thread.
+     */
+    public void beginBatch() {
+        batch.set(new LinkedHashMap<>());
+    }
+
+    /**
+     * Write the collected changes and end the batch. Returns the number of notes updated.
+     */
+    public int flush() {
+        Map<Long, String> pending = batch.get();
+        batch.remove();
+        if (pending == null || pending.isEmpty()) {
+            return 0;
+        }
+        Map<String, TreeSet<Long>> byStatus = new LinkedHashMap<>();
+        pending.forEach((noteId, status) -> byStatus.computeIfAbsent(status, s -> new TreeSet<>()).add(noteId));
+
+        Integer updated = transactionTemplate.execute(tx -> {
+            int count = 0;
+            for (Map.Entry<String, TreeSet<Long>> entry : byStatus.entrySet()) {
+                List<Long> ids = new ArrayList<>(entry.getValue());
+                for (int i = 0; i < ids.size(); i += maxBatch) {
+                    List<Long> chunk = ids.subList(i, Math.min(i + maxBatch, ids.size()));
+                    count += noteRepository.updateVerificationStatus(chunk, entry.getKey());
+                    changeTracker.notesChanged(chunk);
+                }
+            }
+            return count;
+        });
+        logger.debug("Propagated verification status to {} notes", updated);
+        return updated == null ? 0 : updated;
+    }
+
+    /**
+     * Record the verification result for a note.
+     */
+    public void propagate(Long noteId, boolean verified) {
+        if (noteId == null) {
+            return;
+        }
+        String status = verified ? VERIFIED : UNVERIFIED;
+        Map<Long, String> pending = batch.get();
+        if (pending == null) {
+            noteRepository.updateVerificationStatus(noteId, status);
+            changeTracker.notesChanged(List.of(noteId));
+            logger.info("Note {} verification status updated to: {}", noteId, status);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.put(noteId, status);
+                }
+            });
+        } else {
+            pending.put(noteId, status);
+        }
+    }
+}
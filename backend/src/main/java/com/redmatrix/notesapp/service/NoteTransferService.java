@@ -0,0 +1,425 @@
+package com.redmatrix.notesapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bulk export and import of notes as NDJSON (one JSON object per line).
+ *
+ * Export reads the notes table through a forward-only JDBC cursor and writes each row
+ * as it arrives, so memory stays flat however many notes there are. On MySQL this needs
+ * a fetch size of Integer.MIN_VALUE, which makes Connector/J stream rows instead of
+ * loading the whole result.
+ *
+ * Import reads one line at a time and inserts in JDBC batches, each in its own
+ * transaction whose notes share one change sequence value. Lines that are not valid notes,
+ * or longer than {@code notes.import.max-line-size}, are skipped and reported; ids in the
+ * input are ignored and new ones assigned.
+ * Imported notes reach clients through the change feed, not as live events.
+ */
+@Service
+public class NoteTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteTransferService.class);
+
+    private static final String EXPORT_SQL = "SELECT id, title, content, owner_wallet, created_at, updated_at, "
+        + "last_tx_hash, content_hash, verification_status FROM notes ORDER BY id";
+
+    private static final String INSERT_SQL = "INSERT INTO notes (title, content, owner_wallet, created_at, updated_at, "
+        + "last_tx_hash, content_hash, verification_status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * At most this many invalid lines are described in an import result.
+     */
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    /**
+     * Length of the notes table's VARCHAR columns (the JPA default).
+     */
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NoteChangeTracker changeTracker;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long batchBytes;
+    private final int maxLineLength;
+    private final int exportFetchSize;
+    private final Counter exportedCounter;
+    private final Counter importedCounter;
+    private final Map<String, ImportProgress> runningImports = new ConcurrentHashMap<>();
+
+    private JdbcTemplate exportJdbcTemplate;
+
+    /**
+     * One note as it appears in the NDJSON stream.
+     */
+    public record NoteRecord(Long id, String title, String content, String ownerWallet,
+                             OffsetDateTime createdAt, OffsetDateTime updatedAt,
+                             String lastTxHash, String contentHash, String verificationStatus) {}
+
+    /**
+     * Progress of an import; the final value is the result of the import call.
+     * {@code aborted} is set when a database error stopped it early.
+     */
+    public record ImportStatus(String importId, long linesRead, long imported, long skipped,
+                               List<String> errors, OffsetDateTime startedAt, OffsetDateTime finishedAt,
+                               boolean aborted) {}
+
+    public NoteTransferService(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            NoteChangeTracker changeTracker,
+            ObjectMapper objectMapper,
+            @Value("${notes.import.batch-size:1000}") int batchSize,
+            @Value("${notes.import.batch-bytes:8MB}") DataSize batchBytes,
+            @Value("${notes.import.max-line-size:16MB}") DataSize maxLineSize,
+            @Value("${notes.export.fetch-size:1000}") int exportFetchSize,
+            MeterRegistry registry) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeTracker = changeTracker;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.batchBytes = batchBytes.toBytes();
+        this.maxLineLength = (int) Math.min(maxLineSize.toBytes(), Integer.MAX_VALUE - 8);
+        this.exportFetchSize = exportFetchSize;
+        this.exportedCounter = Counter.builder("notes.transfer.rows")
+            .description("Notes exported and imported through the NDJSON bulk endpoints")
+            .tag("direction", "export")
+            .register(registry);
+        this.importedCounter = Counter.builder("notes.transfer.rows")
+            .description("Notes exported and imported through the NDJSON bulk endpoints")
+            .tag("direction", "import")
+            .register(registry);
+    }
+
+    @PostConstruct
+    public void configureExportCursor() throws Exception {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> metaData.getDatabaseProductName());
+        exportJdbcTemplate = new JdbcTemplate(dataSource);
+        // Connector/J only streams rows with this fetch size; other drivers take a real one
+        exportJdbcTemplate.setFetchSize("MySQL".equalsIgnoreCase(product) ? Integer.MIN_VALUE : exportFetchSize);
+    }
+
+    /**
+     * Write every note to {@code out} as NDJSON, in id order. Returns the number written.
+     */
+    public long exportNotes(OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        AtomicLong written = new AtomicLong();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            exportJdbcTemplate.query(EXPORT_SQL, (ResultSet rs) -> {
+                try {
+                    writeNote(generator, rs);
+                } catch (IOException e) {
+                    // Usually the client going away; stops the query
+                    throw new UncheckedIOException(e);
+                }
+                if (written.incrementAndGet() % batchSize == 0) {
+                    flush(generator);
+                }
+            });
+            generator.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            exportedCounter.increment(written.get());
+        }
+        logger.info("Exported {} notes in {} ms", written.get(), (System.nanoTime() - started) / 1_000_000);
+        return written.get();
+    }
+
+    private static void writeNote(JsonGenerator generator, ResultSet rs) throws IOException, SQLException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong("id"));
+        generator.writeStringField("title", rs.getString("title"));
+        generator.writeStringField("content", rs.getString("content"));
+        generator.writeStringField("ownerWallet", rs.getString("owner_wallet"));
+        generator.writeStringField("createdAt", timestamp(rs.getTimestamp("created_at")));
+        generator.writeStringField("updatedAt", timestamp(rs.getTimestamp("updated_at")));
+        generator.writeStringField("lastTxHash", rs.getString("last_tx_hash"));
+        generator.writeStringField("contentHash", rs.getString("content_hash"));
+        generator.writeStringField("verificationStatus", rs.getString("verification_status"));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static String timestamp(Timestamp value) {
+        return value == null ? null : value.toInstant().atOffset(ZoneOffset.UTC).toString();
+    }
+
+    private static void flush(JsonGenerator generator) {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Import notes from an NDJSON stream. Blank lines are ignored; lines that are not valid
+     * notes are skipped and counted. Stops at the first database error, keeping the batches
+     * already committed and returning them with {@code aborted} set.
+     */
+    public ImportStatus importNotes(InputStream in) throws IOException {
+        ImportProgress progress = new ImportProgress(UUID.randomUUID().toString());
+        runningImports.put(progress.importId, progress);
+        logger.info("Starting note import {}", progress.importId);
+        try {
+            LineReader reader = new LineReader(new InputStreamReader(in, StandardCharsets.UTF_8), maxLineLength);
+            List<NoteRecord> batch = new ArrayList<>(batchSize);
+            long pendingBytes = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long lineNumber = progress.linesRead.incrementAndGet();
+                if (reader.truncated) {
+                    progress.skip(lineNumber, "Line longer than " + maxLineLength + " characters");
+                    continue;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                NoteRecord note;
+                try {
+                    note = objectMapper.readValue(line, NoteRecord.class);
+                    validate(note);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    progress.skip(lineNumber, e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage());
+                    continue;
+                }
+                batch.add(note);
+                pendingBytes += line.length();
+                if (batch.size() >= batchSize || pendingBytes >= batchBytes) {
+                    insertBatch(batch, progress);
+                    pendingBytes = 0;
+                }
+            }
+            insertBatch(batch, progress);
+        } catch (DataAccessException e) {
+            logger.warn("Note import {} stopped after line {}", progress.importId, progress.linesRead.get(), e);
+            progress.abort("Database error, import stopped after line " + progress.linesRead.get());
+        } finally {
+            progress.finishedAt = Instant.now().atOffset(ZoneOffset.UTC);
+            runningImports.remove(progress.importId);
+        }
+        ImportStatus result = progress.snapshot();
+        logger.info("Finished note import {}: {} imported, {} skipped of {} lines{}",
+            result.importId(), result.imported(), result.skipped(), result.linesRead(), result.aborted() ? " (aborted)" : "");
+        return result;
+    }
+
+    /**
+     * Progress of the imports currently running.
+     */
+    public Collection<ImportStatus> getRunningImports() {
+        return runningImports.values().stream().map(ImportProgress::snapshot).toList();
+    }
+
+    private void insertBatch(List<NoteRecord> batch, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        transactionTemplate.executeWithoutResult(tx -> {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NoteRecord note = batch.get(i);
+                        Timestamp createdAt = note.createdAt() == null ? now : Timestamp.from(note.createdAt().toInstant());
+                        ps.setString(1, note.title());
+                        ps.setString(2, note.content());
+                        ps.setString(3, note.ownerWallet());
+                        ps.setTimestamp(4, createdAt);
+                        ps.setTimestamp(5, note.updatedAt() == null ? createdAt : Timestamp.from(note.updatedAt().toInstant()));
+                        ps.setString(6, note.lastTxHash());
+                        ps.setString(7, note.contentHash());
+                        ps.setString(8, note.verificationStatus());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }, keys);
+            // The batch gets its change sequence as the transaction commits
+            changeTracker.notesChanged(keys.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .toList());
+        });
+        long imported = progress.imported.addAndGet(batch.size());
+        importedCounter.increment(batch.size());
+        batch.clear();
+        if (imported % (batchSize * 100L) < batchSize) {
+            logger.info("Note import {}: {} imported, {} skipped", progress.importId, imported, progress.skipped.get());
+        }
+    }
+
+    // Same rules as NoteService, plus the column lengths the insert would otherwise fail on
+    private static void validate(NoteRecord note) {
+        if (note == null) {
+            throw new IllegalArgumentException("Note cannot be null");
+        }
+        if (!StringUtils.hasText(note.title())) {
+            throw new IllegalArgumentException("Note title cannot be empty");
+        }
+        if (!StringUtils.hasText(note.content())) {
+            throw new IllegalArgumentException("Note content cannot be empty");
+        }
+        checkLength("title", note.title());
+        checkLength("ownerWallet", note.ownerWallet());
+        checkLength("lastTxHash", note.lastTxHash());
+        checkLength("contentHash", note.contentHash());
+        checkLength("verificationStatus", note.verificationStatus());
+    }
+
+    private static void checkLength(String field, String value) {
+        // VARCHAR lengths count characters, not UTF-16 units
+        if (value != null && value.codePointCount(0, value.length()) > MAX_COLUMN_LENGTH) {
+            throw new IllegalArgumentException("Note " + field + " is longer than " + MAX_COLUMN_LENGTH + " characters");
+        }
+    }
+
+    /**
+     * Reads lines of at most {@code maxLength} characters. The rest of a longer line is read
+     * and thrown away, with {@code truncated} set, so one huge line cannot fill the heap.
+     */
+    private static final class LineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        boolean truncated;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * The next line without its terminator, or null at the end of the stream.
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return read ? finish() : null;
+                    }
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                int room = maxLength - line.length();
+                if (position - start > room) {
+                    truncated = true;
+                }
+                line.append(buffer, start, Math.min(position - start, Math.max(room, 0)));
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        private String finish() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return truncated ? "" : line.toString();
+        }
+    }
+
+    private static final class ImportProgress {
+        final String importId;
+        final OffsetDateTime startedAt = Instant.now().atOffset(ZoneOffset.UTC);
+        final AtomicLong linesRead = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final List<String> errors = new ArrayList<>();
+        volatile OffsetDateTime finishedAt;
+        volatile boolean aborted;
+
+        ImportProgress(String importId) {
+            this.importId = importId;
+        }
+
+        synchronized void skip(long lineNumber, String reason) {
+            skipped.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + reason);
+            }
+        }
+
+        synchronized void abort(String reason) {
+            aborted = true;
+            // Always reported, even when the invalid lines used up the list
+            errors.add(reason);
+        }
+
+        synchronized ImportStatus snapshot() {
+            return new ImportStatus(importId, linesRead.get(), imported.get(), skipped.get(),
+                List.copyOf(errors), startedAt, finishedAt, aborted);
+        }
+    }
+}
@@ -1,23 +1,41 @@
 package com.redmatrix.notesapp.service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.redmatrix.notesapp.entity.Note;
+import com.redmatrix.notesapp.diagnostics.VerificationAttemptEvent;
+import com.redmatrix.notesapp.entity.ArchivedTransactionVerification;
 import com.redmatrix.notesapp.entity.TransactionVerification;
 import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
-import com.redmatrix.notesapp.repository.NoteRepository;
+import com.redmatrix.notesapp.repository.ArchivedTransactionVerificationRepository;
 import com.redmatrix.notesapp.repository.TransactionVerificationRepository;
+import com.redmatrix.notesapp.service.NoteEventHub.NoteEvent;
+
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Service for managing transaction verification operations.
@@ -28,47 +46,390 @@ public class TransactionVerificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionVerificationService.class);
 
+    private static final List<VerificationStatus> SUPERSEDABLE_STATUSES =
+        List.of(VerificationStatus.PENDING, VerificationStatus.FAILED, VerificationStatus.PROCESSING);
+
     @Autowired
     private TransactionVerificationRepository verificationRepository;
 
     @Autowired
-    private NoteRepository noteRepository;
+    private ArchivedTransactionVerificationRepository archiveRepository;
 
     @Autowired
     private BlockfrostService blockfrostService;
 
+    @Autowired
+    private VerificationMetrics verificationMetrics;
+
+    @Autowired
+    private VerificationStatisticsTracker statisticsTracker;
+
+    @Autowired
+    private VerificationRollupService rollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NoteStatusPropagator noteStatusPropagator;
+
+    @Autowired
+    private VerificationKeyCache keyCache;
+
+    @Autowired
+    private NoteEventHub noteEventHub;
+
+    /**
+     * Number of ids covered by each chunk of a bulk update, so a large backlog
+     * is processed as many short transactions instead of one long lock hold.
+     */
+    @Value("${verification.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    /**
+     * Rows per IN lookup and per insert transaction of a batch enqueue.
+     */
+    @Value("${verification.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    /**
+     * Largest number of items accepted by one batch enqueue.
+     */
+    @Value("${verification.batch.max-items:5000}")
+    private int batchMaxItems;
+
+    /**
+     * Whether queueing a verification supersedes older unverified ones of the same note.
+     */
+    @Value("${verification.supersede.enabled:true}")
+    private boolean supersedeEnabled;
+
+    /**
+     * Largest number of notes accepted by one latest-verification lookup.
+     */
+    @Value("${verification.latest.max-notes:500}")
+    private int latestMaxNotes;
+
+    /**
+     * A set-based update over an id range, returning the number of rows changed.
+     */
+    @FunctionalInterface
+    private interface RangeUpdate {
+        int apply(long fromId, long toId, OffsetDateTime now);
+    }
+
     /**
      * Queue a new transaction for verification.
      * Called when a note is created/updated/deleted with blockchain proof.
+     *
+     * Idempotent per txHash: the insert is attempted first and the unique key on tx_hash
+     * decides between concurrent requests; the loser gets the existing verification.
+     * Archived verifications count as existing too. Runs its own short transaction so a
+     * rejected insert does not poison the caller's.
      */
-    @Transactional
     public TransactionVerification queueForVerification(Long noteId, String txHash, String contentHash, String ownerWallet) {
         logger.info("Queueing transaction for verification - noteId: {}, txHash: {}", noteId, txHash);
+        Enqueued enqueued = enqueue(noteId, txHash, contentHash, ownerWallet);
+        if (enqueued.verification() != null) {
+            return enqueued.verification();
+        }
+        // The caller gets the verification's current status, which the key cache does not hold
+        Optional<TransactionVerification> existing = verificationRepository.findById(enqueued.id())
+            .or(() -> archiveRepository.findById(enqueued.id()).map(ArchivedTransactionVerification::toVerification));
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        // Deleted since it was cached; queue again without the stale entry
+        keyCache.invalidate(txHash);
+        return enqueue(noteId, txHash, contentHash, ownerWallet).verification();
+    }
 
-        // Check if verification already exists for this txHash
-        if (verificationRepository.existsByTxHash(txHash)) {
+    /**
+     * A queued verification and whether this call created it. When the txHash was answered
+     * from the key cache only the id is known and {@code verification} is null.
+     */
+    private record Enqueued(Long id, TransactionVerification verification, boolean created) {}
+
+    private Enqueued enqueue(Long noteId, String txHash, String contentHash, String ownerWallet) {
+        // Repeat enqueues of a hash we have seen are answered without a query
+        Long knownId = keyCache.get(txHash);
+        verificationMetrics.recordKeyCacheLookup(knownId != null);
+        if (knownId != null) {
             logger.warn("Verification already exists for txHash: {}", txHash);
-            return verificationRepository.findByTxHash(txHash).orElse(null);
+            return new Enqueued(knownId, null, false);
+        }
+        // uk_tx_hash does not cover the archive, so a hash verified long ago is looked up there
+        Optional<ArchivedTransactionVerification> archived = archiveRepository.findFirstByTxHashOrderByCreatedAtDesc(txHash);
+        if (archived.isPresent()) {
+            keyCache.put(txHash, archived.get().getId());
+            logger.warn("Verification already archived for txHash: {}", txHash);
+            return new Enqueued(archived.get().getId(), archived.get().toVerification(), false);
         }
 
         TransactionVerification verification = new TransactionVerification(noteId, txHash, contentHash, ownerWallet);
-        TransactionVerification saved = verificationRepository.save(verification);
-        
-        logger.info("Created verification record with ID: {} for txHash: {}", saved.getId(), txHash);
-        return saved;
+        try {
+            TransactionVerification saved = transactionTemplate.execute(tx -> {
+                TransactionVerification inserted = verificationRepository.saveAndFlush(verification);
+                statisticsTracker.recordCreated(inserted.getStatus());
+                supersedeOlderVerifications(inserted);
+                noteEventHub.publish(NoteEvent.verification(inserted));
+                return inserted;
+            });
+            keyCache.put(txHash, saved.getId());
+            logger.info("Created verification record with ID: {} for txHash: {}", saved.getId(), txHash);
+            return new Enqueued(saved.getId(), saved, true);
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race against another request for the same hash (uk_tx_hash)
+            TransactionVerification existing = verificationRepository.findByTxHash(txHash).orElseThrow(() -> e);
+            keyCache.put(txHash, existing.getId());
+            logger.warn("Verification already exists for txHash: {}", txHash);
+            return new Enqueued(existing.getId(), existing, false);
+        }
+    }
+
+    /**
+     * One transaction to queue in a batch enqueue.
+     */
+    public record EnqueueRequest(Long noteId, String txHash, String contentHash, String ownerWallet) {}
+
+    /**
+     * What happened to one item of a batch enqueue, in request order.
+     */
+    public record EnqueueResult(int index, String txHash, EnqueueOutcome outcome, Long verificationId, String error) {}
+
+    public enum EnqueueOutcome {
+        CREATED,    // New verification queued
+        EXISTING,   // A verification for the txHash already existed, possibly archived
+        DUPLICATE,  // Same txHash as an earlier item of the batch
+        INVALID,    // noteId or txHash missing
+        FAILED      // Could not be queued, see error
+    }
+
+    /**
+     * Queue many transactions at once.
+     *
+     * Items are deduplicated by txHash in memory, existing verifications are resolved
+     * with one IN query per chunk (plus one on the archive for the hashes not found), and
+     * the new ones are inserted with batched INSERTs, one transaction per chunk. A chunk
+     * that hits the tx_hash unique key (a concurrent enqueue of the same hash) is retried
+     * one item at a time.
+     */
+    public List<EnqueueResult> queueBatch(List<EnqueueRequest> requests) {
+        if (requests.size() > batchMaxItems) {
+            throw new IllegalArgumentException("Batch has " + requests.size() + " items, maximum is " + batchMaxItems);
+        }
+        EnqueueResult[] results = new EnqueueResult[requests.size()];
+        Map<String, Integer> firstIndexByHash = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            EnqueueRequest request = requests.get(i);
+            if (request == null || request.noteId() == null || request.txHash() == null || request.txHash().isBlank()) {
+                results[i] = new EnqueueResult(i, request == null ? null : request.txHash(), EnqueueOutcome.INVALID, null,
+                    "noteId and txHash are required");
+            } else {
+                firstIndexByHash.putIfAbsent(request.txHash(), i);
+            }
+        }
+
+        List<String> hashes = new ArrayList<>(firstIndexByHash.keySet());
+        for (int start = 0; start < hashes.size(); start += batchChunkSize) {
+            List<String> chunk = hashes.subList(start, Math.min(start + batchChunkSize, hashes.size()));
+            Map<String, Long> existing = new HashMap<>();
+            for (Object[] row : verificationRepository.findIdsByTxHashIn(chunk)) {
+                existing.put((String) row[0], ((Number) row[1]).longValue());
+            }
+            List<String> unknown = chunk.stream().filter(txHash -> !existing.containsKey(txHash)).toList();
+            if (!unknown.isEmpty()) {
+                for (Object[] row : archiveRepository.findIdsByTxHashIn(unknown)) {
+                    existing.putIfAbsent((String) row[0], ((Number) row[1]).longValue());
+                }
+            }
+
+            List<Integer> toInsert = new ArrayList<>();
+            for (String txHash : chunk) {
+                int index = firstIndexByHash.get(txHash);
+                Long id = existing.get(txHash);
+                if (id != null) {
+                    keyCache.put(txHash, id);
+                    results[index] = new EnqueueResult(index, txHash, EnqueueOutcome.EXISTING, id, null);
+                } else {
+                    toInsert.add(index);
+                }
+            }
+            insertBatch(requests, toInsert, results);
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] == null) {
+                EnqueueResult first = results[firstIndexByHash.get(requests.get(i).txHash())];
+                results[i] = new EnqueueResult(i, first.txHash(), EnqueueOutcome.DUPLICATE, first.verificationId(), first.error());
+            }
+        }
+        logger.info("Batch enqueue of {} items: {} unique txHashes", requests.size(), hashes.size());
+        return Arrays.asList(results);
+    }
+
+    private void insertBatch(List<EnqueueRequest> requests, List<Integer> indexes, EnqueueResult[] results) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        List<TransactionVerification> verifications = indexes.stream()
+            .map(requests::get)
+            .map(r -> new TransactionVerification(r.noteId(), r.txHash(), r.contentHash(), r.ownerWallet()))
+            .toList();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                verificationRepository.saveAll(verifications);
+                verificationRepository.flush();
+                statisticsTracker.recordTransitions(null, VerificationStatus.PENDING, verifications.size());
+                // The last item of a note in the batch is its newest transaction
+                Map<Long, TransactionVerification> newestByNote = new LinkedHashMap<>();
+                verifications.forEach(v -> newestByNote.put(v.getNoteId(), v));
+                newestByNote.values().forEach(this::supersedeOlderVerifications);
+                verifications.forEach(v -> noteEventHub.publish(NoteEvent.verification(v)));
+            });
+            for (int i = 0; i < indexes.size(); i++) {
+                TransactionVerification saved = verifications.get(i);
+                keyCache.put(saved.getTxHash(), saved.getId());
+                results[indexes.get(i)] = new EnqueueResult(indexes.get(i), saved.getTxHash(), EnqueueOutcome.CREATED, saved.getId(), null);
+            }
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Batch insert of {} verifications raced with another enqueue, queueing one by one", indexes.size());
+            for (int index : indexes) {
+                EnqueueRequest request = requests.get(index);
+                try {
+                    Enqueued enqueued = enqueue(request.noteId(), request.txHash(), request.contentHash(), request.ownerWallet());
+                    results[index] = new EnqueueResult(index, request.txHash(),
+                        enqueued.created() ? EnqueueOutcome.CREATED : EnqueueOutcome.EXISTING, enqueued.id(), null);
+                } catch (Exception itemError) {
+                    results[index] = new EnqueueResult(index, request.txHash(), EnqueueOutcome.FAILED, null, itemError.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark the note's older PENDING, FAILED and PROCESSING verifications as SUPERSEDED once
+     * a newer transaction is queued: only the newest one decides the note's verification
+     * status, so the worker should not spend Blockfrost calls on the others, and drops the
+     * result of one it is already checking.
+     */
+    private void supersedeOlderVerifications(TransactionVerification newest) {
+        if (!supersedeEnabled) {
+            return;
+        }
+        OffsetDateTime now = Instant.now().atOffset(ZoneOffset.UTC);
+        int total = 0;
+        for (VerificationStatus from : SUPERSEDABLE_STATUSES) {
+            int changed = verificationRepository.supersedeOlder(from, VerificationStatus.SUPERSEDED,
+                newest.getNoteId(), newest.getId(), newest.getCreatedAt(), now);
+            statisticsTracker.recordTransitions(from, VerificationStatus.SUPERSEDED, changed);
+            total += changed;
+        }
+        if (total > 0) {
+            logger.info("Superseded {} older verifications of note {} by txHash: {}", total, newest.getNoteId(), newest.getTxHash());
+            verificationMetrics.recordSuperseded(total);
+        }
     }
 
+    /**
+     * Result of checking a verification against Blockfrost, not yet written to the database.
+     */
+    public record VerificationOutcome(TransactionVerification verification, VerificationStatus previousStatus, boolean verified) {}
+
+    /**
+     * Size of the retry queue and creation time of its oldest entry.
+     */
+    public record QueueSummary(long depth, OffsetDateTime oldestCreatedAt) {}
+
     /**
      * Verify a single transaction against Blockfrost.
      * Returns true if verification was successful, false otherwise.
      */
     @Transactional
     public boolean verifyTransaction(TransactionVerification verification) {
-        logger.info("Starting verification for txHash: {}", verification.getTxHash());
+        VerificationOutcome outcome = evaluateVerification(verification);
+        persistVerificationResults(List.of(outcome));
+        return outcome.verified();
+    }
 
-        // Mark as processing
-        verification.setStatus(VerificationStatus.PROCESSING);
-        verificationRepository.save(verification);
+    /**
+     * Check a verification against Blockfrost and apply the result to the entity in memory.
+     * Nothing is written to the database; pass the outcomes to persistVerificationResults.
+     */
+    public VerificationOutcome evaluateVerification(TransactionVerification verification) {
+        Timer.Sample sample = verificationMetrics.startAttempt();
+        VerificationStatus previousStatus = verification.getStatus();
+        VerificationAttemptEvent event = new VerificationAttemptEvent();
+        event.begin();
+        try {
+            boolean verified = attemptVerification(verification);
+            return new VerificationOutcome(verification, previousStatus, verified);
+        } finally {
+            verificationMetrics.recordAttempt(sample, verification.getStatus());
+            event.end();
+            if (event.shouldCommit()) {
+                event.txHash = verification.getTxHash();
+                event.noteId = verification.getNoteId() == null ? 0 : verification.getNoteId();
+                event.outcome = verification.getStatus() == null ? null : verification.getStatus().name();
+                event.retryCount = verification.getRetryCount() == null ? 0 : verification.getRetryCount();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Write evaluated verifications in one transaction.
+     * The rows are loaded with a single query and written with JDBC-batched UPDATEs
+     * when the transaction flushes; note statuses, statistics and rollups follow.
+     */
+    @Transactional
+    public void persistVerificationResults(List<VerificationOutcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        List<Long> ids = outcomes.stream().map(o -> o.verification().getId()).toList();
+        Map<Long, TransactionVerification> managed = new HashMap<>();
+        for (TransactionVerification verification : verificationRepository.findAllById(ids)) {
+            managed.put(verification.getId(), verification);
+        }
+
+        for (VerificationOutcome outcome : outcomes) {
+            TransactionVerification result = outcome.verification();
+            TransactionVerification target = managed.get(result.getId());
+            if (target == null) {
+                logger.warn("Verification {} no longer exists, dropping its result", result.getId());
+                continue;
+            }
+            if (target.getStatus() == VerificationStatus.SUPERSEDED) {
+                // A newer transaction for the note was queued while this one was being checked
+                logger.info("Verification {} was superseded, dropping its result", result.getId());
+                continue;
+            }
+            VerificationStatus previousStatus = outcome.previousStatus();
+            if (target != result) {
+                // Usually PROCESSING, or PENDING again if the claim went stale meanwhile
+                previousStatus = target.getStatus();
+                copyResult(result, target);
+            }
+            statisticsTracker.recordTransition(previousStatus, result.getStatus());
+            rollupService.recordOutcome(result);
+            updateNoteVerificationStatus(result.getNoteId(), outcome.verified());
+            noteEventHub.publish(NoteEvent.verification(result));
+        }
+    }
+
+    private static void copyResult(TransactionVerification from, TransactionVerification to) {
+        to.setStatus(from.getStatus());
+        to.setRetryCount(from.getRetryCount());
+        to.setLastError(from.getLastError());
+        to.setVerifiedAt(from.getVerifiedAt());
+        to.setBlockchainContentHash(from.getBlockchainContentHash());
+        to.setBlockchainAction(from.getBlockchainAction());
+        to.setHashMatch(from.getHashMatch());
+    }
+
+    private boolean attemptVerification(TransactionVerification verification) {
+        logger.info("Starting verification for txHash: {}", verification.getTxHash());
 
         try {
             // Fetch metadata from Blockfrost
@@ -106,10 +467,6 @@ public class TransactionVerificationService {
                 verification.setStatus(VerificationStatus.VERIFIED);
                 verification.setVerifiedAt(Instant.now().atOffset(ZoneOffset.UTC));
                 verification.setLastError(null);
-                verificationRepository.save(verification);
-
-                // Update the note's verification status
-                updateNoteVerificationStatus(verification.getNoteId(), true);
 
                 logger.info("Transaction verified successfully - txHash: {}, hashMatch: true", verification.getTxHash());
                 return true;
@@ -133,7 +490,7 @@ public class TransactionVerificationService {
      * Looks for label "674" which is the standard for note metadata.
      */
     @SuppressWarnings("unchecked")
-    private Map<String, Object> extractNoteMetadata(List<Map<String, Object>> metadataList) {
+    Map<String, Object> extractNoteMetadata(List<Map<String, Object>> metadataList) {
         for (Map<String, Object> metadata : metadataList) {
             Object label = metadata.get("label");
             if ("674".equals(String.valueOf(label))) {
@@ -150,7 +507,7 @@ public class TransactionVerificationService {
      * Extract a string value from metadata, handling both direct strings and arrays.
      */
     @SuppressWarnings("unchecked")
-    private String extractStringFromMetadata(Map<String, Object> metadata, String key) {
+    String extractStringFromMetadata(Map<String, Object> metadata, String key) {
         Object value = metadata.get(key);
         if (value == null) {
             return null;
@@ -185,21 +542,13 @@ public class TransactionVerificationService {
                 verification.getMaxRetries(), error);
         }
 
-        verificationRepository.save(verification);
-        updateNoteVerificationStatus(verification.getNoteId(), false);
     }
 
     /**
      * Update the note's verification status in the database.
      */
     private void updateNoteVerificationStatus(Long noteId, boolean verified) {
-        Optional<Note> noteOpt = noteRepository.findById(noteId);
-        if (noteOpt.isPresent()) {
-            Note note = noteOpt.get();
-            note.setVerificationStatus(verified ? "VERIFIED" : "UNVERIFIED");
-            noteRepository.save(note);
-            logger.info("Note {} verification status updated to: {}", noteId, verified ? "VERIFIED" : "UNVERIFIED");
-        }
+        noteStatusPropagator.propagate(noteId, verified);
     }
 
     /**
@@ -209,6 +558,70 @@ public class TransactionVerificationService {
         return verificationRepository.findVerificationsNeedingRetry();
     }
 
+    /**
+     * Get the next verifications the worker should process, at most {@code limit}, and claim
+     * them by moving them to PROCESSING with one set-based UPDATE per status, so another
+     * worker does not check them too. Rows someone else claimed first are left out; rows
+     * whose worker dies stay in PROCESSING until requeueStaleProcessing puts them back.
+     */
+    public List<TransactionVerification> getNextVerificationBatch(int limit) {
+        List<TransactionVerification> batch = verificationRepository.findVerificationsNeedingRetry(PageRequest.of(0, limit));
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        Map<VerificationStatus, List<TransactionVerification>> byStatus = batch.stream()
+            .collect(Collectors.groupingBy(TransactionVerification::getStatus, LinkedHashMap::new, Collectors.toList()));
+        Set<Long> claimedIds = new HashSet<>();
+        byStatus.forEach((status, verifications) -> {
+            List<Long> ids = verifications.stream().map(TransactionVerification::getId).toList();
+            if (claim(status, ids)) {
+                claimedIds.addAll(ids);
+                return;
+            }
+            // Another worker got to some of them first; claim the rest one at a time
+            for (Long id : ids) {
+                if (claim(status, List.of(id))) {
+                    claimedIds.add(id);
+                }
+            }
+        });
+        List<TransactionVerification> claimed = batch.stream().filter(v -> claimedIds.contains(v.getId())).toList();
+        // The rows were read outside a transaction, so this only updates the detached copies
+        claimed.forEach(v -> v.setStatus(VerificationStatus.PROCESSING));
+        if (claimed.size() < batch.size()) {
+            logger.info("Claimed {} of {} verifications, the rest were taken by another worker", claimed.size(), batch.size());
+        }
+        return claimed;
+    }
+
+    /**
+     * Move all of {@code ids} from {@code from} to PROCESSING, or none of them.
+     */
+    private boolean claim(VerificationStatus from, List<Long> ids) {
+        Boolean claimed = transactionTemplate.execute(tx -> {
+            int changed = verificationRepository.transitionIds(from, VerificationStatus.PROCESSING, ids,
+                Instant.now().atOffset(ZoneOffset.UTC));
+            if (changed != ids.size()) {
+                tx.setRollbackOnly();
+                return false;
+            }
+            statisticsTracker.recordTransitions(from, VerificationStatus.PROCESSING, changed);
+            return true;
+        });
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    /**
+     * Get the number of verifications waiting to be processed and the creation time of the oldest one.
+     */
+    public QueueSummary getRetryQueueSummary() {
+        List<Object[]> rows = verificationRepository.getRetryQueueSummary();
+        if (rows.isEmpty() || rows.get(0)[0] == null) {
+            return new QueueSummary(0, null);
+        }
+        return new QueueSummary(((Number) rows.get(0)[0]).longValue(), (OffsetDateTime) rows.get(0)[1]);
+    }
+
     /**
      * Get verification by ID.
      */
@@ -220,7 +633,30 @@ public class TransactionVerificationService {
      * Get verification by transaction hash.
      */
     public Optional<TransactionVerification> getVerificationByTxHash(String txHash) {
-        return verificationRepository.findByTxHash(txHash);
+        Optional<TransactionVerification> verification = findCachedByTxHash(txHash);
+        if (verification.isPresent()) {
+            return verification;
+        }
+        verification = verificationRepository.findByTxHash(txHash);
+        verification.ifPresent(v -> keyCache.put(txHash, v.getId()));
+        return verification;
+    }
+
+    /**
+     * Look a verification up by primary key when its txHash is in the key cache, for callers
+     * that need the row itself. Entries whose row is gone (archived or deleted) are dropped.
+     */
+    private Optional<TransactionVerification> findCachedByTxHash(String txHash) {
+        Long id = keyCache.get(txHash);
+        verificationMetrics.recordKeyCacheLookup(id != null);
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<TransactionVerification> verification = verificationRepository.findById(id);
+        if (verification.isEmpty()) {
+            keyCache.invalidate(txHash);
+        }
+        return verification;
     }
 
     /**
@@ -237,18 +673,29 @@ public class TransactionVerificationService {
         return verificationRepository.findFirstByNoteIdOrderByCreatedAtDesc(noteId);
     }
 
+    /**
+     * Get the latest verification of each note in one query, keyed by note id.
+     * Notes without verifications are left out.
+     */
+    public Map<Long, TransactionVerification> getLatestVerificationsForNotes(Collection<Long> noteIds) {
+        if (noteIds.size() > latestMaxNotes) {
+            throw new IllegalArgumentException("Requested " + noteIds.size() + " notes, maximum is " + latestMaxNotes);
+        }
+        Map<Long, TransactionVerification> latest = new LinkedHashMap<>();
+        if (noteIds.isEmpty()) {
+            return latest;
+        }
+        for (TransactionVerification verification : verificationRepository.findLatestByNoteIdIn(new LinkedHashSet<>(noteIds))) {
+            latest.put(verification.getNoteId(), verification);
+        }
+        return latest;
+    }
+
     /**
      * Get verification statistics.
      */
     public Map<String, Long> getVerificationStatistics() {
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("pending", verificationRepository.countByStatus(VerificationStatus.PENDING));
-        stats.put("processing", verificationRepository.countByStatus(VerificationStatus.PROCESSING));
-        stats.put("verified", verificationRepository.countByStatus(VerificationStatus.VERIFIED));
-        stats.put("failed", verificationRepository.countByStatus(VerificationStatus.FAILED));
-        stats.put("expired", verificationRepository.countByStatus(VerificationStatus.EXPIRED));
-        stats.put("total", verificationRepository.count());
-        return stats;
+        return statisticsTracker.snapshot();
     }
 
     /**
@@ -260,22 +707,65 @@ public class TransactionVerificationService {
 
     /**
      * Mark expired verifications.
+     * PENDING and FAILED rows that have used up their retries are expired with
+     * set-based updates, chunked by id range.
      */
-    @Transactional
     public int markExpiredVerifications() {
-        List<TransactionVerification> expired = verificationRepository.findExpiredVerifications();
         int count = 0;
-        for (TransactionVerification v : expired) {
-            v.setStatus(VerificationStatus.EXPIRED);
-            verificationRepository.save(v);
-            count++;
+        for (VerificationStatus from : List.of(VerificationStatus.PENDING, VerificationStatus.FAILED)) {
+            count += transitionInChunks(from, VerificationStatus.EXPIRED,
+                (fromId, toId, now) -> verificationRepository.expireRange(from, VerificationStatus.EXPIRED, fromId, toId, now));
         }
         if (count > 0) {
             logger.info("Marked {} verifications as expired", count);
         }
+        verificationMetrics.recordExpired(count);
         return count;
     }
 
+    /**
+     * Put PROCESSING verifications that have not been updated for {@code timeout}
+     * back to PENDING, e.g. after a node died in the middle of a verification.
+     */
+    public int requeueStaleProcessing(Duration timeout) {
+        OffsetDateTime cutoff = Instant.now().minus(timeout).atOffset(ZoneOffset.UTC);
+        int count = transitionInChunks(VerificationStatus.PROCESSING, VerificationStatus.PENDING,
+            (fromId, toId, now) -> verificationRepository.transitionStaleRange(
+                VerificationStatus.PROCESSING, VerificationStatus.PENDING, fromId, toId, cutoff, now));
+        if (count > 0) {
+            logger.info("Requeued {} verifications stuck in PROCESSING", count);
+        }
+        return count;
+    }
+
+    /**
+     * Run a set-based status update over all rows in {@code from} status, one id range
+     * per transaction, and report the changed rows to statistics, rollups and metrics.
+     */
+    private int transitionInChunks(VerificationStatus from, VerificationStatus to, RangeUpdate update) {
+        Long minId = verificationRepository.findMinIdByStatus(from);
+        Long maxId = verificationRepository.findMaxIdByStatus(from);
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+        int total = 0;
+        for (long start = minId; start <= maxId; start += bulkChunkSize) {
+            long chunkStart = start;
+            long chunkEnd = Math.min(start + bulkChunkSize - 1, maxId);
+            long started = System.nanoTime();
+            Integer rows = transactionTemplate.execute(tx -> {
+                int changed = update.apply(chunkStart, chunkEnd, Instant.now().atOffset(ZoneOffset.UTC));
+                statisticsTracker.recordTransitions(from, to, changed);
+                return changed;
+            });
+            int changed = rows == null ? 0 : rows;
+            verificationMetrics.recordBulkChunk(from, to, changed, System.nanoTime() - started);
+            rollupService.recordOutcomes(to, changed);
+            total += changed;
+        }
+        return total;
+    }
+
     /**
      * Manually trigger verification for a specific transaction.
      */
@@ -289,6 +779,7 @@ public class TransactionVerificationService {
         TransactionVerification verification = opt.get();
         
         // Reset status to pending for retry
+        statisticsTracker.recordTransition(verification.getStatus(), VerificationStatus.PENDING);
         verification.setStatus(VerificationStatus.PENDING);
         verificationRepository.save(verification);
         
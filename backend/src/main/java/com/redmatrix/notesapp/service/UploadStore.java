@@ -0,0 +1,188 @@
+package com.redmatrix.notesapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Content-addressed storage for uploaded images.
+ *
+ * Uploads are streamed to a temp file while their SHA-256 is computed, then moved
+ * atomically to {@code <upload-dir>/ab/cd/<sha256>.<ext>}, where ab and cd are the first
+ * two bytes of the hash. The same image uploaded again maps to the same path, so the
+ * temp file is discarded and the existing URL returned. Two levels of 256 shards keep
+ * every directory small.
+ */
+@Service
+public class UploadStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadStore.class);
+
+    public static final String URL_PREFIX = "/uploads/";
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+        "image/jpeg", "jpg",
+        "image/jpg", "jpg",
+        "image/png", "png",
+        "image/gif", "gif",
+        "image/webp", "webp",
+        "image/svg+xml", "svg");
+
+    /**
+     * Content-addressed file names: 64 hex digits and an extension.
+     */
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("([0-9a-f]{64})\\.[a-z]+");
+
+    private static final String TEMP_DIR = "tmp";
+    private static final String CHUNKS_DIR = "chunks";
+
+    private final Path root;
+
+    /**
+     * A stored upload. {@code path} is relative to the upload directory.
+     */
+    public record StoredUpload(String sha256, String path, String url, long size, boolean duplicate) {}
+
+    public UploadStore(@Value("${file.upload-dir:uploads}") String uploadDir) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public boolean isSupportedType(String contentType) {
+        return contentType != null && EXTENSIONS.containsKey(contentType.toLowerCase());
+    }
+
+    /**
+     * Store the content of {@code in} and return where it ended up.
+     */
+    public StoredUpload store(InputStream in, String contentType) throws IOException {
+        String extension = extension(contentType);
+
+        Path tempDir = root.resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = in.transferTo(out);
+            }
+            return place(temp, HexFormat.of().formatHex(digest.digest()), extension, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Store a complete file that was assembled under the upload directory, such as a
+     * chunked upload. The file is moved into place, or deleted if the image is already stored.
+     */
+    public StoredUpload storeFile(Path file, String contentType) throws IOException {
+        String extension = extension(contentType);
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                size = in.transferTo(OutputStream.nullOutputStream());
+            }
+            return place(file, HexFormat.of().formatHex(digest.digest()), extension, size);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Working directory for chunked uploads being assembled. Not served.
+     */
+    public Path chunkDirectory() throws IOException {
+        return Files.createDirectories(root.resolve(CHUNKS_DIR));
+    }
+
+    private StoredUpload place(Path source, String hash, String extension, long size) throws IOException {
+        String relative = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension;
+        Path target = root.resolve(relative);
+
+        boolean duplicate = Files.exists(target);
+        if (!duplicate) {
+            Files.createDirectories(target.getParent());
+            try {
+                moveIntoPlace(source, target);
+            } catch (FileAlreadyExistsException e) {
+                // The same image was stored concurrently
+                duplicate = true;
+            }
+        }
+        if (duplicate) {
+            logger.info("Upload matches existing file {}", relative);
+        }
+        return new StoredUpload(hash, relative, URL_PREFIX + relative, size, duplicate);
+    }
+
+    void moveIntoPlace(Path source, Path target) throws IOException {
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String extension(String contentType) {
+        String extension = contentType == null ? null : EXTENSIONS.get(contentType.toLowerCase());
+        if (extension == null) {
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+        return extension;
+    }
+
+    /**
+     * Resolve a path taken from an upload URL to a file under the upload directory.
+     * Empty for paths escaping the directory or pointing into its working directories.
+     * The file itself is not checked.
+     */
+    public Optional<Path> resolve(String relative) {
+        if (relative == null || relative.isEmpty()) {
+            return Optional.empty();
+        }
+        Path file = root.resolve(relative).normalize();
+        if (!file.startsWith(root) || file.equals(root)
+                || file.startsWith(root.resolve(TEMP_DIR)) || file.startsWith(root.resolve(CHUNKS_DIR))) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * The SHA-256 a content-addressed file is named after, read from the name alone.
+     * Empty for files stored before content addressing (random names).
+     */
+    public Optional<String> contentHash(Path file) {
+        Matcher matcher = CONTENT_ADDRESSED_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
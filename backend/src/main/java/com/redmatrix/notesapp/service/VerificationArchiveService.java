@@ -0,0 +1,125 @@
+package com.redmatrix.notesapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redmatrix.notesapp.entity.ArchivedTransactionVerification;
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+import com.redmatrix.notesapp.repository.ArchivedTransactionVerificationRepository;
+import com.redmatrix.notesapp.repository.TransactionVerificationRepository;
+
+/**
+ * Retention for transaction_verifications.
+ *
+ * VERIFIED, EXPIRED and SUPERSEDED rows are never touched again, so once they are older than the
+ * retention period they are moved to transaction_verifications_archive, one id range
+ * per transaction. This keeps the table and its status/note indexes that the worker
+ * depends on down to the working set. Archived rows stay queryable through this service.
+ */
+@Service
+public class VerificationArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationArchiveService.class);
+
+    private static final List<VerificationStatus> ARCHIVABLE_STATUSES =
+        List.of(VerificationStatus.VERIFIED, VerificationStatus.EXPIRED, VerificationStatus.SUPERSEDED);
+
+    @Autowired
+    private TransactionVerificationRepository verificationRepository;
+
+    @Autowired
+    private ArchivedTransactionVerificationRepository archiveRepository;
+
+    @Autowired
+    private VerificationStatisticsTracker statisticsTracker;
+
+    @Autowired
+    private VerificationMetrics verificationMetrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${verification.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${verification.archive.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Move terminal verifications last updated more than {@code retention} ago to the archive.
+     * Returns the number of rows archived.
+     */
+    public int archive(Duration retention) {
+        OffsetDateTime cutoff = Instant.now().minus(retention).atOffset(ZoneOffset.UTC);
+        int total = 0;
+        for (VerificationStatus status : ARCHIVABLE_STATUSES) {
+            Long minId = verificationRepository.findMinIdByStatus(status);
+            Long maxId = verificationRepository.findMaxIdByStatus(status);
+            if (minId == null || maxId == null) {
+                continue;
+            }
+            for (long start = minId; start <= maxId; start += chunkSize) {
+                long chunkStart = start;
+                long chunkEnd = Math.min(start + chunkSize - 1, maxId);
+                long started = System.nanoTime();
+                Integer rows = transactionTemplate.execute(tx -> {
+                    int copied = archiveRepository.copyRange(status.name(), chunkStart, chunkEnd, cutoff,
+                        Instant.now().atOffset(ZoneOffset.UTC));
+                    if (copied == 0) {
+                        return 0;
+                    }
+                    int deleted = archiveRepository.deleteArchivedRange(status.name(), chunkStart, chunkEnd);
+                    statisticsTracker.recordTransitions(status, null, deleted);
+                    return deleted;
+                });
+                int archived = rows == null ? 0 : rows;
+                verificationMetrics.recordArchiveChunk(status, archived, System.nanoTime() - started);
+                total += archived;
+            }
+        }
+        if (total > 0) {
+            logger.info("Archived {} verifications last updated before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    /**
+     * Get archived verifications for a note, newest first.
+     */
+    public List<ArchivedTransactionVerification> getArchivedForNote(Long noteId, int page, int size) {
+        return archiveRepository.findByNoteIdOrderByCreatedAtDesc(noteId, pageRequest(page, size));
+    }
+
+    /**
+     * Get archived verifications for a wallet, newest first.
+     */
+    public List<ArchivedTransactionVerification> getArchivedForWallet(String ownerWallet, int page, int size) {
+        return archiveRepository.findByOwnerWalletOrderByCreatedAtDesc(ownerWallet, pageRequest(page, size));
+    }
+
+    /**
+     * Get an archived verification by transaction hash.
+     */
+    public Optional<ArchivedTransactionVerification> getArchivedByTxHash(String txHash) {
+        return archiveRepository.findFirstByTxHashOrderByCreatedAtDesc(txHash);
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + maxPageSize);
+        }
+        return PageRequest.of(page, size);
+    }
+}
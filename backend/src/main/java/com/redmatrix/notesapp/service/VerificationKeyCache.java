@@ -0,0 +1,83 @@
+package com.redmatrix.notesapp.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded txHash to verification id cache.
+ *
+ * A transaction hash never moves to another verification, so once its id is known
+ * lookups by hash can go straight to the primary key instead of the tx_hash index.
+ * Entries may outlive their row (archived or deleted verifications); callers treat a
+ * missing row as a stale entry and invalidate it. Least recently used entries are
+ * evicted once {@code verification.key-cache.max-size} is reached.
+ *
+ * Every verification request goes through here, so it is guarded by a ReentrantLock rather
+ * than a monitor: on Java 21 a virtual thread waiting to enter a synchronized method pins its
+ * carrier thread, while one waiting on a j.u.c. lock unmounts.
+ */
+@Component
+public class VerificationKeyCache {
+
+    private final Map<String, Long> ids;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public VerificationKeyCache(@Value("${verification.key-cache.max-size:10000}") int maxSize) {
+        this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Cached verification id for a transaction hash, or null.
+     */
+    public Long get(String txHash) {
+        lock.lock();
+        try {
+            // Access order: even a lookup moves the entry
+            return ids.get(txHash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remember the verification id of a committed verification.
+     */
+    public void put(String txHash, Long id) {
+        if (txHash == null || id == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            ids.put(txHash, id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(String txHash) {
+        lock.lock();
+        try {
+            ids.remove(txHash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
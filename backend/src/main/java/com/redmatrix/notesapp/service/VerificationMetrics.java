@@ -0,0 +1,178 @@
+package com.redmatrix.notesapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters for the verification pipeline.
+ *
+ * <ul>
+ *   <li>{@code verification.attempt} - duration of each verification attempt, tagged by resulting status</li>
+ *   <li>{@code verification.worker.cycle} - duration of each worker cycle</li>
+ *   <li>{@code verification.worker.processed} - verifications processed by the worker, tagged by outcome</li>
+ *   <li>{@code verification.expired} - verifications marked as expired by the expiry sweep</li>
+ *   <li>{@code verification.superseded} - pending or failed verifications superseded by a newer one for the same note</li>
+ *   <li>{@code verification.bulk.transitions} - rows moved by set-based bulk updates, tagged by source and target status</li>
+ *   <li>{@code verification.bulk.chunk} - duration of each chunk of a bulk update</li>
+ *   <li>{@code verification.archived} - terminal verifications moved to the archive table, tagged by status</li>
+ *   <li>{@code verification.key.cache} - txHash lookups answered from the key cache, tagged by result (hit or miss)</li>
+ *   <li>{@code verification.queue.depth} - verifications waiting for the worker, as of the last cycle</li>
+ *   <li>{@code verification.queue.oldest.age} - age of the oldest waiting verification</li>
+ * </ul>
+ */
+@Component
+public class VerificationMetrics {
+
+    private final Map<VerificationStatus, Timer> attemptTimers = new EnumMap<>(VerificationStatus.class);
+    private final Map<VerificationStatus, Map<VerificationStatus, Counter>> bulkTransitions = new EnumMap<>(VerificationStatus.class);
+    private final Map<VerificationStatus, Timer> bulkChunkTimers = new EnumMap<>(VerificationStatus.class);
+    private final Map<VerificationStatus, Counter> archivedCounters = new EnumMap<>(VerificationStatus.class);
+    private final Timer archiveChunkTimer;
+    private final Timer workerCycleTimer;
+    private final Counter processedVerified;
+    private final Counter processedFailed;
+    private final Counter expiredCounter;
+    private final Counter supersededCounter;
+    private final Counter keyCacheHits;
+    private final Counter keyCacheMisses;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private volatile Instant oldestPendingCreatedAt;
+
+    public VerificationMetrics(MeterRegistry registry) {
+        for (VerificationStatus status : VerificationStatus.values()) {
+            attemptTimers.put(status, Timer.builder("verification.attempt")
+                .description("Duration of a single transaction verification attempt")
+                .tag("outcome", status.name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(registry));
+            Map<VerificationStatus, Counter> transitions = new EnumMap<>(VerificationStatus.class);
+            for (VerificationStatus from : VerificationStatus.values()) {
+                transitions.put(from, Counter.builder("verification.bulk.transitions")
+                    .description("Verifications moved by set-based bulk updates")
+                    .tag("from", from.name().toLowerCase())
+                    .tag("to", status.name().toLowerCase())
+                    .register(registry));
+            }
+            bulkTransitions.put(status, transitions);
+            bulkChunkTimers.put(status, bulkChunkTimer(registry, status.name().toLowerCase()));
+            archivedCounters.put(status, Counter.builder("verification.archived")
+                .description("Terminal verifications moved to the archive table")
+                .tag("status", status.name().toLowerCase())
+                .register(registry));
+        }
+        this.archiveChunkTimer = bulkChunkTimer(registry, "archive");
+        this.workerCycleTimer = Timer.builder("verification.worker.cycle")
+            .description("Duration of a verification worker cycle")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.processedVerified = Counter.builder("verification.worker.processed")
+            .description("Verifications processed by the worker")
+            .tag("outcome", "verified")
+            .register(registry);
+        this.processedFailed = Counter.builder("verification.worker.processed")
+            .description("Verifications processed by the worker")
+            .tag("outcome", "failed")
+            .register(registry);
+        this.expiredCounter = Counter.builder("verification.expired")
+            .description("Verifications marked as expired by the expiry sweep")
+            .register(registry);
+        this.supersededCounter = Counter.builder("verification.superseded")
+            .description("Pending or failed verifications superseded by a newer one for the same note")
+            .register(registry);
+        this.keyCacheHits = Counter.builder("verification.key.cache")
+            .description("Verification lookups by txHash, by whether the key cache knew the id")
+            .tag("result", "hit")
+            .register(registry);
+        this.keyCacheMisses = Counter.builder("verification.key.cache")
+            .description("Verification lookups by txHash, by whether the key cache knew the id")
+            .tag("result", "miss")
+            .register(registry);
+
+        Gauge.builder("verification.queue.depth", queueDepth, AtomicLong::get)
+            .description("Verifications waiting to be processed, as of the last worker cycle")
+            .register(registry);
+        TimeGauge.builder("verification.queue.oldest.age", this, TimeUnit.SECONDS, VerificationMetrics::oldestPendingAgeSeconds)
+            .description("Age of the oldest verification waiting to be processed")
+            .register(registry);
+    }
+
+    public Timer.Sample startAttempt() {
+        return Timer.start();
+    }
+
+    /**
+     * Record an attempt, tagged with the status the verification ended up in.
+     */
+    public void recordAttempt(Timer.Sample sample, VerificationStatus outcome) {
+        sample.stop(attemptTimers.get(outcome == null ? VerificationStatus.FAILED : outcome));
+    }
+
+    public void recordWorkerCycle(long durationNanos, int verified, int failed) {
+        workerCycleTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        processedVerified.increment(verified);
+        processedFailed.increment(failed);
+    }
+
+    public void recordExpired(int count) {
+        expiredCounter.increment(count);
+    }
+
+    public void recordSuperseded(int count) {
+        supersededCounter.increment(count);
+    }
+
+    public void recordKeyCacheLookup(boolean hit) {
+        (hit ? keyCacheHits : keyCacheMisses).increment();
+    }
+
+    /**
+     * Record one chunk of a set-based status update.
+     */
+    public void recordBulkChunk(VerificationStatus from, VerificationStatus to, int rows, long durationNanos) {
+        bulkTransitions.get(to).get(from).increment(rows);
+        bulkChunkTimers.get(to).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record one chunk of the archive job.
+     */
+    public void recordArchiveChunk(VerificationStatus status, int rows, long durationNanos) {
+        archivedCounters.get(status).increment(rows);
+        archiveChunkTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Update the queue gauges with the number of verifications waiting and the creation time of the oldest.
+     */
+    public void updateQueue(long depth, OffsetDateTime oldestCreatedAt) {
+        queueDepth.set(depth);
+        oldestPendingCreatedAt = oldestCreatedAt == null ? null : oldestCreatedAt.toInstant();
+    }
+
+    private static Timer bulkChunkTimer(MeterRegistry registry, String to) {
+        return Timer.builder("verification.bulk.chunk")
+            .description("Duration of a chunk of a set-based bulk update")
+            .tag("to", to)
+            .register(registry);
+    }
+
+    private double oldestPendingAgeSeconds() {
+        Instant oldest = oldestPendingCreatedAt;
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis() / 1000.0);
+    }
+}
@@ -0,0 +1,293 @@
+package com.redmatrix.notesapp.service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.redmatrix.notesapp.entity.TransactionVerification;
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+import com.redmatrix.notesapp.entity.VerificationRollup;
+import com.redmatrix.notesapp.entity.VerificationRollup.Granularity;
+import com.redmatrix.notesapp.repository.VerificationRollupRepository;
+
+/**
+ * Time-bucketed verification analytics.
+ *
+ * Outcomes are counted in memory per minute as the service transitions rows. Once a
+ * minute is over, the worker flushes it into minute, hour and day rows of
+ * {@code verification_rollups}, merging the time-to-verify histograms. Dashboards read
+ * these rollups (plus the minutes not flushed yet) instead of scanning
+ * {@code transaction_verifications}.
+ */
+@Service
+public class VerificationRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationRollupService.class);
+
+    /**
+     * Time-to-verify is recorded in milliseconds, up to 30 days, with two significant digits.
+     */
+    static final long HIGHEST_TRACKABLE_MILLIS = TimeUnit.DAYS.toMillis(30);
+    static final int SIGNIFICANT_DIGITS = 2;
+
+    @Autowired
+    private VerificationRollupRepository rollupRepository;
+
+    @Value("${verification.rollup.minute-retention:48h}")
+    private Duration minuteRetention;
+
+    @Value("${verification.rollup.hour-retention:90d}")
+    private Duration hourRetention;
+
+    @Value("${verification.rollup.max-points:5000}")
+    private int maxPoints;
+
+    private final Map<Instant, MinuteBucket> openBuckets = new ConcurrentHashMap<>();
+
+    /**
+     * Verification time-to-verify percentiles for a bucket, in milliseconds.
+     */
+    public record TimeToVerify(long count, long p50Millis, long p90Millis, long p99Millis, long maxMillis) {}
+
+    /**
+     * One bucket of the time series.
+     */
+    public record RollupPoint(OffsetDateTime bucketStart, long verified, long failed, long expired, TimeToVerify timeToVerify) {}
+
+    /**
+     * Count the outcome of a verification that just reached VERIFIED, FAILED or EXPIRED.
+     * Applied once the surrounding transaction commits.
+     */
+    public void recordOutcome(TransactionVerification verification) {
+        VerificationStatus status = verification.getStatus();
+        if (status != VerificationStatus.VERIFIED && status != VerificationStatus.FAILED
+                && status != VerificationStatus.EXPIRED) {
+            return;
+        }
+        long timeToVerifyMillis = -1;
+        if (status == VerificationStatus.VERIFIED && verification.getVerifiedAt() != null && verification.getCreatedAt() != null) {
+            timeToVerifyMillis = Duration.between(verification.getCreatedAt(), verification.getVerifiedAt()).toMillis();
+        }
+        long ttv = timeToVerifyMillis;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(status, 1, ttv);
+                }
+            });
+        } else {
+            record(status, 1, ttv);
+        }
+    }
+
+    /**
+     * Count outcomes applied by a bulk update. Must be called after the update committed.
+     */
+    public void recordOutcomes(VerificationStatus status, long count) {
+        if (count > 0) {
+            record(status, count, -1);
+        }
+    }
+
+    /**
+     * Write every finished minute to the rollup table and drop rollups past their retention.
+     * Returns the number of minutes flushed.
+     */
+    @Transactional
+    public int flush() {
+        Instant currentMinute = Instant.now().truncatedTo(Granularity.MINUTE.getUnit());
+        List<Instant> finished = openBuckets.keySet().stream()
+            .filter(minute -> minute.isBefore(currentMinute))
+            .sorted()
+            .toList();
+
+        for (Instant minute : finished) {
+            Accumulator accumulator = openBuckets.get(minute).snapshot();
+            for (Granularity granularity : Granularity.values()) {
+                merge(granularity, granularity.bucketStart(minute), accumulator);
+            }
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        rollupRepository.deleteOlderThan(Granularity.MINUTE, now.minus(minuteRetention));
+        rollupRepository.deleteOlderThan(Granularity.HOUR, now.minus(hourRetention));
+
+        // Keep the minutes in memory until they are committed, so a failed flush is retried
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    finished.forEach(openBuckets::remove);
+                }
+            });
+        } else {
+            finished.forEach(openBuckets::remove);
+        }
+        if (!finished.isEmpty()) {
+            logger.debug("Flushed {} verification rollup minutes", finished.size());
+        }
+        return finished.size();
+    }
+
+    /**
+     * Outcome counts and time-to-verify percentiles for each bucket in [from, to).
+     * Empty buckets are included with zero counts.
+     */
+    public List<RollupPoint> timeseries(Granularity granularity, Instant from, Instant to) {
+        OffsetDateTime start = granularity.bucketStart(from);
+        OffsetDateTime end = to.atOffset(ZoneOffset.UTC);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        long buckets = granularity.getUnit().between(start, end) + 1;
+        if (buckets > maxPoints) {
+            throw new IllegalArgumentException("Requested range has " + buckets + " " + granularity.name().toLowerCase()
+                + " buckets, maximum is " + maxPoints);
+        }
+
+        Map<OffsetDateTime, Accumulator> points = new TreeMap<>();
+        for (OffsetDateTime bucket = start; bucket.isBefore(end); bucket = bucket.plus(1, granularity.getUnit())) {
+            points.put(bucket, new Accumulator());
+        }
+        for (VerificationRollup rollup : rollupRepository.findRange(granularity, start, end)) {
+            points.computeIfAbsent(rollup.getBucketStart().withOffsetSameInstant(ZoneOffset.UTC), b -> new Accumulator()).add(rollup);
+        }
+        // Minutes not flushed yet
+        openBuckets.forEach((minute, bucket) -> {
+            OffsetDateTime bucketStart = granularity.bucketStart(minute);
+            if (!bucketStart.isBefore(start) && bucketStart.isBefore(end)) {
+                points.computeIfAbsent(bucketStart, b -> new Accumulator()).add(bucket.snapshot());
+            }
+        });
+
+        List<RollupPoint> result = new ArrayList<>(points.size());
+        points.forEach((bucketStart, accumulator) -> result.add(accumulator.toPoint(bucketStart)));
+        return result;
+    }
+
+    private void record(VerificationStatus status, long count, long timeToVerifyMillis) {
+        Instant minute = Instant.now().truncatedTo(Granularity.MINUTE.getUnit());
+        MinuteBucket bucket = openBuckets.computeIfAbsent(minute, m -> new MinuteBucket());
+        switch (status) {
+            case VERIFIED -> {
+                bucket.verified.add(count);
+                if (timeToVerifyMillis >= 0) {
+                    bucket.timeToVerify.recordValue(Math.min(timeToVerifyMillis, HIGHEST_TRACKABLE_MILLIS));
+                }
+            }
+            case FAILED -> bucket.failed.add(count);
+            case EXPIRED -> bucket.expired.add(count);
+            default -> { }
+        }
+    }
+
+    private void merge(Granularity granularity, OffsetDateTime bucketStart, Accumulator accumulator) {
+        VerificationRollup rollup = rollupRepository.findByGranularityAndBucketStart(granularity, bucketStart)
+            .orElseGet(() -> new VerificationRollup(granularity, bucketStart));
+        Accumulator merged = new Accumulator();
+        merged.add(rollup);
+        merged.add(accumulator);
+        rollup.setVerifiedCount(merged.verified);
+        rollup.setFailedCount(merged.failed);
+        rollup.setExpiredCount(merged.expired);
+        rollup.setTimeToVerifyHistogram(encode(merged.timeToVerify));
+        rollupRepository.save(rollup);
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_MILLIS, SIGNIFICANT_DIGITS);
+    }
+
+    static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    static Histogram decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return newHistogram();
+        }
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), HIGHEST_TRACKABLE_MILLIS);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt time-to-verify histogram in verification rollup", e);
+        }
+    }
+
+    /**
+     * Counters for a minute that is still being recorded.
+     */
+    private static final class MinuteBucket {
+        private final LongAdder verified = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder expired = new LongAdder();
+        private final ConcurrentHistogram timeToVerify = new ConcurrentHistogram(HIGHEST_TRACKABLE_MILLIS, SIGNIFICANT_DIGITS);
+
+        Accumulator snapshot() {
+            Accumulator accumulator = new Accumulator();
+            accumulator.verified = verified.sum();
+            accumulator.failed = failed.sum();
+            accumulator.expired = expired.sum();
+            accumulator.timeToVerify.add(timeToVerify);
+            return accumulator;
+        }
+    }
+
+    /**
+     * Mergeable totals for a bucket.
+     */
+    private static final class Accumulator {
+        private long verified;
+        private long failed;
+        private long expired;
+        private final Histogram timeToVerify = newHistogram();
+
+        void add(Accumulator other) {
+            verified += other.verified;
+            failed += other.failed;
+            expired += other.expired;
+            timeToVerify.add(other.timeToVerify);
+        }
+
+        void add(VerificationRollup rollup) {
+            verified += rollup.getVerifiedCount();
+            failed += rollup.getFailedCount();
+            expired += rollup.getExpiredCount();
+            timeToVerify.add(decode(rollup.getTimeToVerifyHistogram()));
+        }
+
+        RollupPoint toPoint(OffsetDateTime bucketStart) {
+            TimeToVerify ttv = new TimeToVerify(
+                timeToVerify.getTotalCount(),
+                timeToVerify.getValueAtPercentile(50),
+                timeToVerify.getValueAtPercentile(90),
+                timeToVerify.getValueAtPercentile(99),
+                timeToVerify.getMaxValue());
+            return new RollupPoint(bucketStart, verified, failed, expired, ttv);
+        }
+    }
+}
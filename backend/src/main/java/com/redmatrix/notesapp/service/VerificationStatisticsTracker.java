@@ -0,0 +1,210 @@
+package com.redmatrix.notesapp.service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+import com.redmatrix.notesapp.entity.VerificationStatusCount;
+import com.redmatrix.notesapp.repository.TransactionVerificationRepository;
+import com.redmatrix.notesapp.repository.VerificationStatusCountRepository;
+
+/**
+ * Keeps verification counts per status so the stats endpoint does not have to
+ * count the whole table on every call.
+ *
+ * Every status change made by the service is reported here. In-memory counters are
+ * only adjusted once the surrounding transaction commits, so rolled back work never
+ * shows up. The counters are rebuilt from a single GROUP BY query at startup and
+ * periodically by the worker, which also corrects drift from rows changed outside
+ * the service (manual SQL, other nodes).
+ *
+ * With {@code verification.stats.summary-table.enabled=true} the counts are kept in the
+ * {@code verification_status_counts} table instead, updated with delta UPDATEs in the
+ * same transaction as the status change, so every node reads the same numbers.
+ */
+@Component
+public class VerificationStatisticsTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationStatisticsTracker.class);
+
+    @Autowired
+    private TransactionVerificationRepository verificationRepository;
+
+    @Autowired
+    private VerificationStatusCountRepository statusCountRepository;
+
+    @Value("${verification.stats.summary-table.enabled:false}")
+    private boolean summaryTableEnabled;
+
+    private final Map<VerificationStatus, LongAdder> counts = new EnumMap<>(VerificationStatus.class);
+
+    private volatile boolean initialized = false;
+
+    public VerificationStatisticsTracker() {
+        for (VerificationStatus status : VerificationStatus.values()) {
+            counts.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Record a newly created verification.
+     */
+    public void recordCreated(VerificationStatus status) {
+        recordTransition(null, status);
+    }
+
+    /**
+     * Record a verification leaving the table (deleted or archived).
+     */
+    public void recordRemoved(VerificationStatus status) {
+        recordTransition(status, null);
+    }
+
+    /**
+     * Record a status change. Either side may be null for rows being created or removed.
+     */
+    public void recordTransition(VerificationStatus from, VerificationStatus to) {
+        recordTransitions(from, to, 1);
+    }
+
+    /**
+     * Record the same status change for {@code count} verifications (bulk updates).
+     */
+    public void recordTransitions(VerificationStatus from, VerificationStatus to, long count) {
+        if (from == to || count == 0) {
+            return;
+        }
+        if (summaryTableEnabled) {
+            if (from != null) {
+                statusCountRepository.addToCount(from, -count);
+            }
+            if (to != null) {
+                statusCountRepository.addToCount(to, count);
+            }
+        }
+        Map<VerificationStatus, Long> deltas = pendingDeltas();
+        if (from != null) {
+            deltas.merge(from, -count, Long::sum);
+        }
+        if (to != null) {
+            deltas.merge(to, count, Long::sum);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(deltas);
+        }
+    }
+
+    /**
+     * Current counts keyed like the stats endpoint: pending, processing, verified, failed, expired and total.
+     */
+    public Map<String, Long> snapshot() {
+        if (!initialized) {
+            reconcile();
+        }
+        Map<VerificationStatus, Long> current = new EnumMap<>(VerificationStatus.class);
+        if (summaryTableEnabled) {
+            for (VerificationStatusCount row : statusCountRepository.findAll()) {
+                current.put(row.getStatus(), row.getStatusCount());
+            }
+        } else {
+            counts.forEach((status, adder) -> current.put(status, adder.sum()));
+        }
+
+        Map<String, Long> stats = new HashMap<>();
+        long total = 0;
+        for (VerificationStatus status : VerificationStatus.values()) {
+            long count = Math.max(0, current.getOrDefault(status, 0L));
+            stats.put(status.name().toLowerCase(), count);
+            total += count;
+        }
+        stats.put("total", total);
+        return stats;
+    }
+
+    /**
+     * Rebuild the counts from the verification table with one GROUP BY query.
+     */
+    @Transactional
+    public void reconcile() {
+        Map<VerificationStatus, Long> actual = new EnumMap<>(VerificationStatus.class);
+        for (VerificationStatus status : VerificationStatus.values()) {
+            actual.put(status, 0L);
+        }
+        List<Object[]> rows = verificationRepository.getVerificationStatistics();
+        for (Object[] row : rows) {
+            actual.put((VerificationStatus) row[0], ((Number) row[1]).longValue());
+        }
+
+        if (summaryTableEnabled) {
+            List<VerificationStatusCount> summary = actual.entrySet().stream()
+                .map(e -> new VerificationStatusCount(e.getKey(), e.getValue()))
+                .toList();
+            statusCountRepository.saveAll(summary);
+        }
+        actual.forEach((status, count) -> {
+            LongAdder adder = counts.get(status);
+            long drift = count - adder.sum();
+            if (drift != 0) {
+                adder.add(drift);
+                if (initialized) {
+                    logger.info("Corrected {} verification count by {}", status, drift);
+                }
+            }
+        });
+        initialized = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.warn("Could not load verification statistics at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Deltas collected in the current transaction, applied to the counters after commit.
+     * Outside a transaction a fresh map is returned and applied immediately by the caller.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<VerificationStatus, Long> pendingDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new EnumMap<>(VerificationStatus.class);
+        }
+        Map<VerificationStatus, Long> deltas = (Map<VerificationStatus, Long>) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            Map<VerificationStatus, Long> created = new EnumMap<>(VerificationStatus.class);
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(VerificationStatisticsTracker.this);
+                    if (status == STATUS_COMMITTED) {
+                        apply(created);
+                    }
+                }
+            });
+            deltas = created;
+        }
+        return deltas;
+    }
+
+    private void apply(Map<VerificationStatus, Long> deltas) {
+        deltas.forEach((status, delta) -> counts.get(status).add(delta));
+    }
+}
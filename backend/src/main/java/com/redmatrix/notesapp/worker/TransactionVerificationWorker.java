@@ -1,5 +1,7 @@
 package com.redmatrix.notesapp.worker;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -11,7 +13,14 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.redmatrix.notesapp.entity.TransactionVerification;
+import com.redmatrix.notesapp.service.NoteStatusPropagator;
 import com.redmatrix.notesapp.service.TransactionVerificationService;
+import com.redmatrix.notesapp.service.TransactionVerificationService.QueueSummary;
+import com.redmatrix.notesapp.service.TransactionVerificationService.VerificationOutcome;
+import com.redmatrix.notesapp.service.VerificationArchiveService;
+import com.redmatrix.notesapp.service.VerificationMetrics;
+import com.redmatrix.notesapp.service.VerificationRollupService;
+import com.redmatrix.notesapp.service.VerificationStatisticsTracker;
 
 /**
  * Background worker that periodically verifies pending blockchain transactions.
@@ -30,6 +39,21 @@ public class TransactionVerificationWorker {
     @Autowired
     private TransactionVerificationService verificationService;
 
+    @Autowired
+    private VerificationMetrics verificationMetrics;
+
+    @Autowired
+    private NoteStatusPropagator noteStatusPropagator;
+
+    @Autowired
+    private VerificationStatisticsTracker statisticsTracker;
+
+    @Autowired
+    private VerificationRollupService rollupService;
+
+    @Autowired
+    private VerificationArchiveService archiveService;
+
     /**
      * Maximum number of verifications to process per run.
      * This prevents the worker from running too long in a single cycle.
@@ -37,6 +61,18 @@ public class TransactionVerificationWorker {
     @Value("${verification.worker.batch-size:10}")
     private int batchSize;
 
+    /**
+     * How long a verification may stay in PROCESSING before it is put back to PENDING.
+     */
+    @Value("${verification.worker.stale-processing-timeout:10m}")
+    private Duration staleProcessingTimeout;
+
+    /**
+     * How long VERIFIED, EXPIRED and SUPERSEDED verifications stay in the main table before being archived.
+     */
+    @Value("${verification.archive.retention:30d}")
+    private Duration archiveRetention;
+
     /**
      * Flag to prevent concurrent execution of the worker.
      */
@@ -62,33 +98,37 @@ public class TransactionVerificationWorker {
             return;
         }
 
+        long cycleStart = System.nanoTime();
+        int verified = 0;
+        int failed = 0;
+
+        // Note status changes of this cycle are written together at the end
+        noteStatusPropagator.beginBatch();
+
         try {
             logger.debug("Starting verification worker cycle");
             
-            // Get pending verifications
-            List<TransactionVerification> pending = verificationService.getPendingVerifications();
-            
-            if (pending.isEmpty()) {
+            // Get the next batch of pending verifications
+            QueueSummary queue = verificationService.getRetryQueueSummary();
+            verificationMetrics.updateQueue(queue.depth(), queue.oldestCreatedAt());
+
+            if (queue.depth() == 0) {
                 logger.debug("No pending verifications to process");
                 return;
             }
 
-            logger.info("Found {} pending verifications, processing up to {}", pending.size(), batchSize);
+            List<TransactionVerification> pending = verificationService.getNextVerificationBatch(batchSize);
+            logger.info("Found {} pending verifications, processing up to {}", queue.depth(), batchSize);
 
             int processed = 0;
-            int verified = 0;
-            int failed = 0;
+            List<VerificationOutcome> outcomes = new ArrayList<>(pending.size());
 
-            // Process up to batchSize verifications
+            // Check each verification against Blockfrost; results are written together below
             for (TransactionVerification verification : pending) {
-                if (processed >= batchSize) {
-                    logger.info("Batch size limit reached, remaining verifications will be processed in next cycle");
-                    break;
-                }
-
                 try {
-                    boolean success = verificationService.verifyTransaction(verification);
-                    if (success) {
+                    VerificationOutcome outcome = verificationService.evaluateVerification(verification);
+                    outcomes.add(outcome);
+                    if (outcome.verified()) {
                         verified++;
                     } else {
                         failed++;
@@ -101,21 +141,32 @@ public class TransactionVerificationWorker {
                 processed++;
 
                 // Small delay between verifications to avoid rate limiting
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Verification worker interrupted");
-                    break;
+                if (processed < pending.size()) {
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        logger.warn("Verification worker interrupted");
+                        break;
+                    }
                 }
             }
 
+            // One transaction and one batched flush for the whole cycle
+            verificationService.persistVerificationResults(outcomes);
+
             logger.info("Verification worker cycle completed - processed: {}, verified: {}, failed: {}", 
                 processed, verified, failed);
 
         } catch (Exception e) {
             logger.error("Error in verification worker: {}", e.getMessage(), e);
         } finally {
+            try {
+                noteStatusPropagator.flush();
+            } catch (Exception e) {
+                logger.error("Error updating note verification status: {}", e.getMessage());
+            }
+            verificationMetrics.recordWorkerCycle(System.nanoTime() - cycleStart, verified, failed);
             isRunning.set(false);
         }
     }
@@ -136,6 +187,58 @@ public class TransactionVerificationWorker {
         }
     }
 
+    /**
+     * Scheduled task to requeue verifications stuck in PROCESSING.
+     * Runs every 5 minutes.
+     */
+    @Scheduled(cron = "${verification.worker.stale-cron:30 0/5 * * * ?}")
+    public void requeueStaleProcessing() {
+        try {
+            verificationService.requeueStaleProcessing(staleProcessingTimeout);
+        } catch (Exception e) {
+            logger.error("Error requeueing stale verifications: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Scheduled task to move old VERIFIED, EXPIRED and SUPERSEDED verifications to the archive table.
+     * Runs daily at 03:15.
+     */
+    @Scheduled(cron = "${verification.archive.cron:0 15 3 * * ?}")
+    public void archiveVerifications() {
+        try {
+            archiveService.archive(archiveRetention);
+        } catch (Exception e) {
+            logger.error("Error archiving verifications: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Scheduled task to reconcile the verification statistics with the database.
+     * Runs every 10 minutes.
+     */
+    @Scheduled(cron = "${verification.stats.reconcile-cron:0 0/10 * * * ?}")
+    public void reconcileStatistics() {
+        try {
+            statisticsTracker.reconcile();
+        } catch (Exception e) {
+            logger.error("Error reconciling verification statistics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Scheduled task to write finished minutes of verification analytics to the rollup table.
+     * Runs every minute, a few seconds after the minute ends.
+     */
+    @Scheduled(cron = "${verification.rollup.flush-cron:5 * * * * ?}")
+    public void flushRollups() {
+        try {
+            rollupService.flush();
+        } catch (Exception e) {
+            logger.error("Error flushing verification rollups: {}", e.getMessage());
+        }
+    }
+
     /**
      * Check if the worker is currently running.
      */
@@ -0,0 +1,87 @@
+package com.redmatrix.notesapp.controller;
+
+import com.redmatrix.notesapp.service.BlockfrostService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class BlockfrostControllerTest {
+
+    private static final String TX_HASH = "a".repeat(64);
+
+    @Mock
+    private BlockfrostService blockfrostService;
+
+    @InjectMocks
+    private BlockfrostController blockfrostController;
+
+    @Test
+    void getTransactionMetadata_found_returns200() throws Exception {
+        List<Map<String, Object>> metadata = List.of(Map.of("label", "674"));
+        when(blockfrostService.getTransactionMetadataAsync(TX_HASH)).thenReturn(CompletableFuture.completedFuture(metadata));
+
+        ResponseEntity<List<Map<String, Object>>> response = get(TX_HASH);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(metadata, response.getBody());
+    }
+
+    @Test
+    void getTransactionMetadata_invalidHash_returns400() throws Exception {
+        when(blockfrostService.getTransactionMetadataAsync("nope")).thenThrow(new IllegalArgumentException("Invalid transaction hash"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, get("nope").getStatusCode());
+    }
+
+    @Test
+    void getTransactionMetadata_notConfigured_returns503() throws Exception {
+        when(blockfrostService.getTransactionMetadataAsync(TX_HASH)).thenThrow(new IllegalStateException("not configured"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, get(TX_HASH).getStatusCode());
+    }
+
+    @Test
+    void getTransactionMetadata_unknownTransaction_returns404() throws Exception {
+        when(blockfrostService.getTransactionMetadataAsync(TX_HASH))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Transaction not found: " + TX_HASH)));
+
+        assertEquals(HttpStatus.NOT_FOUND, get(TX_HASH).getStatusCode());
+    }
+
+    @Test
+    void getTransactionMetadata_wrappedFailure_isUnwrapped() throws Exception {
+        CompletableFuture<List<Map<String, Object>>> failed = CompletableFuture.supplyAsync(() -> {
+            throw new CompletionException(new RuntimeException("Transaction not found: " + TX_HASH));
+        });
+        when(blockfrostService.getTransactionMetadataAsync(TX_HASH)).thenReturn(failed);
+
+        assertEquals(HttpStatus.NOT_FOUND, get(TX_HASH).getStatusCode());
+    }
+
+    @Test
+    void getTransactionMetadata_blockfrostError_returns500() throws Exception {
+        when(blockfrostService.getTransactionMetadataAsync(TX_HASH))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Blockfrost API error: 500 Internal Server Error - boom")));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, get(TX_HASH).getStatusCode());
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> get(String txHash) throws Exception {
+        return blockfrostController.getTransactionMetadata(txHash).get(5, TimeUnit.SECONDS);
+    }
+}
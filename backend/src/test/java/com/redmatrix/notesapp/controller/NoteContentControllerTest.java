@@ -0,0 +1,193 @@
+package com.redmatrix.notesapp.controller;
+
+import com.redmatrix.notesapp.service.NoteContentService;
+import com.redmatrix.notesapp.service.NoteContentService.ContentInfo;
+import com.redmatrix.notesapp.service.NoteContentService.ContentSink;
+import com.redmatrix.notesapp.service.NoteContentService.ContentTarget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class NoteContentControllerTest {
+
+    private static final String CONTENT = "0123456789";
+
+    @Mock
+    private NoteContentService noteContentService;
+
+    @InjectMocks
+    private NoteContentController noteContentController;
+
+    @Test
+    void getContent_plainGet_streamsWholeContent() throws IOException {
+        stubNote(7L, 7L, CONTENT);
+
+        MockHttpServletResponse response = get(request("GET"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("\"1-7\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals(10, response.getContentLengthLong());
+    }
+
+    @Test
+    void getContent_etagMatches_notModifiedWithoutReadingContent() throws IOException {
+        when(noteContentService.getVersion(1L)).thenReturn(Optional.of(7L));
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1-7\"");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(304, response.getStatus());
+        verify(noteContentService, never()).writeContent(any(), any());
+    }
+
+    @Test
+    void getContent_changedSinceVersionCheck_tagsWhatIsSent() throws IOException {
+        stubNote(7L, 8L, CONTENT);
+
+        assertEquals("\"1-8\"", get(request("GET")).getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getContent_acceptsGzip_compressesUnderItsOwnEtag() throws IOException {
+        stubNote(7L, 7L, CONTENT);
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"1-7-gz\"", response.getHeader(HttpHeaders.ETAG));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(CONTENT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void getContent_singleRange_returnsPartialContentUncompressed() throws IOException {
+        stubNote(7L, 7L, CONTENT);
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", response.getContentAsString());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"1-7\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getContent_ifRangeMatches_honoursRange() throws IOException {
+        stubNote(7L, 7L, CONTENT);
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=-2");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"1-7\"");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("89", response.getContentAsString());
+    }
+
+    @Test
+    void getContent_ifRangeStale_returnsWholeContent() throws IOException {
+        stubNote(7L, 8L, CONTENT);
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"1-7\"");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void getContent_unsatisfiableRange_returns416() throws IOException {
+        stubNote(7L, 7L, CONTENT);
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void getContent_head_sendsHeadersOnly() throws IOException {
+        stubNote(7L, 7L, CONTENT);
+
+        MockHttpServletResponse response = get(request("HEAD"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getContent_unknownNote_returns404() throws IOException {
+        when(noteContentService.getVersion(1L)).thenReturn(Optional.empty());
+
+        assertEquals(404, get(request("GET")).getStatus());
+        verify(noteContentService, never()).writeContent(any(), any());
+    }
+
+    @Test
+    void getContent_deletedAfterVersionCheck_returns404() throws IOException {
+        when(noteContentService.getVersion(1L)).thenReturn(Optional.of(7L));
+        when(noteContentService.writeContent(eq(1L), any())).thenReturn(false);
+
+        assertEquals(404, get(request("GET")).getStatus());
+    }
+
+    /**
+     * A note whose version check sees {@code version} and whose content row has {@code changeSeq}.
+     */
+    private void stubNote(long version, long changeSeq, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        when(noteContentService.getVersion(1L)).thenReturn(Optional.of(version));
+        when(noteContentService.writeContent(eq(1L), any())).thenAnswer(invocation -> {
+            ContentSink sink = invocation.getArgument(1, ContentTarget.class).open(new ContentInfo(changeSeq, bytes.length));
+            if (sink != null) {
+                sink.out().write(bytes, (int) sink.start(), (int) (sink.end() - sink.start() + 1));
+            }
+            return true;
+        });
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        return new MockHttpServletRequest(method, "/api/notes/1/content");
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        noteContentController.getContent(1L, request, response);
+        return response;
+    }
+}
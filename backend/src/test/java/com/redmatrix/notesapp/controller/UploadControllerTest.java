@@ -0,0 +1,213 @@
+package com.redmatrix.notesapp.controller;
+
+import com.redmatrix.notesapp.service.ImageVariantService;
+import com.redmatrix.notesapp.service.UploadStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class UploadControllerTest {
+
+    private static final String HASH = "abc123";
+
+    @Mock
+    private UploadStore uploadStore;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @InjectMocks
+    private UploadController uploadController;
+
+    @TempDir
+    private Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(dir.resolve(HASH + ".png"), "0123456789");
+        lenient().when(uploadStore.resolve(HASH + ".png")).thenReturn(Optional.of(file));
+        lenient().when(uploadStore.contentHash(file)).thenReturn(Optional.of(HASH));
+    }
+
+    @Test
+    void serveUpload_plainGet_returnsFileWithImmutableCaching() throws IOException {
+        MockHttpServletResponse response = serve(request("GET"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("\"" + HASH + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(UploadController.CACHE_CONTROL, response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("image/png", response.getContentType());
+        assertEquals(10, response.getContentLengthLong());
+    }
+
+    @Test
+    void serveUpload_contentAddressedEtagMatches_notModifiedWithoutReadingFile() throws IOException {
+        Files.delete(file);
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("\"" + HASH + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serveUpload_randomNameEtagMatches_notModified() throws IOException {
+        when(uploadStore.contentHash(file)).thenReturn(Optional.empty());
+        String etag = serve(request("GET")).getHeader(HttpHeaders.ETAG);
+        assertNotEquals("\"" + HASH + "\"", etag);
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serveUpload_singleRange_returnsPartialContent() throws IOException {
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", response.getContentAsString());
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void serveUpload_suffixRange_returnsTail() throws IOException {
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 7-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", response.getContentAsString());
+    }
+
+    @Test
+    void serveUpload_ifRangeMatches_honoursRange() throws IOException {
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-0");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"" + HASH + "\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("0", response.getContentAsString());
+    }
+
+    @Test
+    void serveUpload_ifRangeStale_returnsWholeFile() throws IOException {
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    void serveUpload_severalRanges_returnsWholeFile() throws IOException {
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,4-5");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    void serveUpload_unsatisfiableOrMalformedRange_returns416() throws IOException {
+        for (String range : new String[] {"bytes=10-", "bytes=5-2", "pages=1-2"}) {
+            MockHttpServletRequest request = request("GET");
+            request.addHeader(HttpHeaders.RANGE, range);
+
+            MockHttpServletResponse response = serve(request);
+
+            assertEquals(416, response.getStatus(), range);
+            assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+        }
+    }
+
+    @Test
+    void serveUpload_head_sendsHeadersOnly() throws IOException {
+        MockHttpServletResponse response = serve(request("HEAD"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serveUpload_sendfileSupported_handsFileToContainer() throws IOException {
+        MockHttpServletRequest request = request("GET");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(file.toRealPath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(2L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(6L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serveUpload_unknownFile_returns404() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/missing.png");
+
+        assertEquals(404, serve(request).getStatus());
+    }
+
+    @Test
+    void serveUpload_invalidWidth_returns400() throws IOException {
+        MockHttpServletRequest request = request("GET");
+        request.setParameter("w", "wide");
+
+        assertEquals(400, serve(request).getStatus());
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        return new MockHttpServletRequest(method, "/uploads/" + HASH + ".png");
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        uploadController.serveUpload(request, response);
+        return response;
+    }
+}
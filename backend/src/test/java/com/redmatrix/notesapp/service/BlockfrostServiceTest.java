@@ -0,0 +1,159 @@
+package com.redmatrix.notesapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockfrostServiceTest {
+
+    private static final String TX_HASH = "a".repeat(64);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * Status and body the stub Blockfrost answers with.
+     */
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<String> body = new AtomicReference<>("[]");
+    private final AtomicReference<String> projectHeader = new AtomicReference<>();
+
+    private HttpServer blockfrost;
+    private BlockfrostService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blockfrost = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        blockfrost.createContext("/", exchange -> {
+            projectHeader.set(exchange.getRequestHeaders().getFirst("project_id"));
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        blockfrost.start();
+        service = service("project", "http://127.0.0.1:" + blockfrost.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        blockfrost.stop(0);
+    }
+
+    private BlockfrostService service(String projectId, String apiUrl) {
+        return new BlockfrostService(projectId, apiUrl, 1, Duration.ofSeconds(2), Duration.ofSeconds(5),
+            new ObjectMapper(), registry);
+    }
+
+    @Test
+    void getTransactionMetadataAsync_found_parsesMetadata() throws Exception {
+        body.set("[{\"label\":\"674\",\"json_metadata\":{\"msg\":[\"hello\"]}}]");
+
+        List<Map<String, Object>> metadata = service.getTransactionMetadataAsync(TX_HASH).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, metadata.size());
+        assertEquals("674", metadata.get(0).get("label"));
+        assertEquals("project", projectHeader.get());
+        assertEquals(1, registry.timer("blockfrost.requests", "endpoint", "tx_metadata", "outcome", "success").count());
+    }
+
+    @Test
+    void getTransactionMetadataAsync_invalidHash_throwsBeforeCalling() {
+        for (String txHash : new String[] {null, "abc", "g".repeat(64), TX_HASH + "/../x"}) {
+            assertThrows(IllegalArgumentException.class, () -> service.getTransactionMetadataAsync(txHash), txHash);
+        }
+        assertNull(projectHeader.get());
+    }
+
+    @Test
+    void getTransactionMetadataAsync_noProjectId_throwsIllegalStateException() {
+        BlockfrostService unconfigured = service("", "http://127.0.0.1:1");
+        try {
+            assertThrows(IllegalStateException.class, () -> unconfigured.getTransactionMetadataAsync(TX_HASH));
+        } finally {
+            unconfigured.shutdown();
+        }
+    }
+
+    @Test
+    void getTransactionMetadataAsync_notFound_failsWithTransactionNotFound() {
+        status.set(404);
+        body.set("{\"status_code\":404}");
+
+        RuntimeException cause = failure(service.getTransactionMetadataAsync(TX_HASH));
+
+        assertEquals("Transaction not found: " + TX_HASH, cause.getMessage());
+        assertEquals(1, registry.timer("blockfrost.requests", "endpoint", "tx_metadata", "outcome", "not_found").count());
+    }
+
+    @Test
+    void getTransactionMetadataAsync_serverError_failsWithStatusAndBody() {
+        status.set(500);
+        body.set("boom");
+
+        RuntimeException cause = failure(service.getTransactionMetadataAsync(TX_HASH));
+
+        assertEquals("Blockfrost API error: 500 Internal Server Error - boom", cause.getMessage());
+        assertEquals(1, registry.timer("blockfrost.requests", "endpoint", "tx_metadata", "outcome", "server_error").count());
+    }
+
+    @Test
+    void getTransactionMetadataAsync_unreachable_failsWithIoError() {
+        BlockfrostService unreachable = service("project", "http://127.0.0.1:1");
+        try {
+            RuntimeException cause = failure(unreachable.getTransactionMetadataAsync(TX_HASH));
+
+            assertTrue(cause.getMessage().startsWith("Failed to fetch transaction metadata: "), cause.getMessage());
+            assertEquals(1, registry.timer("blockfrost.requests", "endpoint", "tx_metadata", "outcome", "io_error").count());
+        } finally {
+            unreachable.shutdown();
+        }
+    }
+
+    @Test
+    void getTransactionMetadata_blocking_unwrapsFailure() {
+        status.set(404);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.getTransactionMetadata(TX_HASH));
+
+        assertEquals("Transaction not found: " + TX_HASH, e.getMessage());
+    }
+
+    @Test
+    void getTransactionMetadata_blocking_returnsMetadata() {
+        body.set("[{\"label\":\"1\"}]");
+
+        assertEquals(List.of(Map.of("label", "1")), service.getTransactionMetadata(TX_HASH));
+    }
+
+    @Test
+    void getTransactionMetadataAsync_emptyBody_returnsNull() throws Exception {
+        body.set("");
+
+        assertNull(service.getTransactionMetadataAsync(TX_HASH).get(5, TimeUnit.SECONDS));
+    }
+
+    private static RuntimeException failure(CompletableFuture<?> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return assertInstanceOf(RuntimeException.class, e.getCause());
+    }
+}
@@ -0,0 +1,289 @@
+package com.redmatrix.notesapp.service;
+
+import com.redmatrix.notesapp.service.ChunkedUploadService.UploadStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class ChunkedUploadServiceTest {
+
+    private static final String PNG = "image/png";
+
+    @Mock
+    private UploadStore uploadStore;
+
+    @TempDir
+    private Path chunkDir;
+
+    private ChunkedUploadService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lenient().when(uploadStore.isSupportedType(PNG)).thenReturn(true);
+        lenient().when(uploadStore.chunkDirectory()).thenReturn(chunkDir);
+        service = service(Duration.ofHours(1), 2);
+    }
+
+    private ChunkedUploadService service(Duration ttl, int maxSessions) {
+        // 4-byte chunks keep the arithmetic readable
+        return new ChunkedUploadService(uploadStore, DataSize.ofBytes(50), DataSize.ofBytes(4), ttl,
+            Duration.ofMillis(100), maxSessions, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void start_validUpload_reportsEveryChunkMissing() throws IOException {
+        UploadStatus status = service.start(PNG, 10);
+
+        assertEquals(3, status.chunkCount());
+        assertEquals(List.of(0, 1, 2), status.missingChunks());
+        assertEquals(10, Files.size(chunkDir.resolve(status.uploadId() + ".part")));
+    }
+
+    @Test
+    void start_unsupportedTypeOrBadSize_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.start("text/html", 10));
+        assertThrows(IllegalArgumentException.class, () -> service.start(PNG, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.start(PNG, 51));
+    }
+
+    @Test
+    void start_tooManySessions_throwsUntilOneIsAborted() throws IOException {
+        UploadStatus first = service.start(PNG, 4);
+        service.start(PNG, 4);
+
+        assertThrows(IllegalStateException.class, () -> service.start(PNG, 4));
+
+        assertTrue(service.abort(first.uploadId()));
+        assertNotNull(service.start(PNG, 4));
+    }
+
+    @Test
+    void writeChunk_validChunks_marksThemReceived() throws IOException {
+        String id = service.start(PNG, 10).uploadId();
+
+        service.writeChunk(id, 4, body("efgh"), sha256("efgh"));
+        UploadStatus status = service.writeChunk(id, 8, body("ij"), sha256("ij"));
+
+        assertEquals(List.of(0), status.missingChunks());
+    }
+
+    @Test
+    void writeChunk_offsetNotOnChunkBoundary_throwsIllegalArgumentException() throws IOException {
+        String id = service.start(PNG, 10).uploadId();
+
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 2, body("abcd"), sha256("abcd")));
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, -4, body("abcd"), sha256("abcd")));
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 12, body("abcd"), sha256("abcd")));
+    }
+
+    @Test
+    void writeChunk_malformedHash_throwsIllegalArgumentException() throws IOException {
+        String id = service.start(PNG, 10).uploadId();
+
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, body("abcd"), null));
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, body("abcd"), "not-a-hash"));
+    }
+
+    @Test
+    void writeChunk_wrongSize_throwsAndChunkStaysMissing() throws IOException {
+        String id = service.start(PNG, 10).uploadId();
+
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, body("abcde"), sha256("abcde")));
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, body("abc"), sha256("abc")));
+        // The last chunk is shorter and must be exactly the remainder
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 8, body("ijk"), sha256("ijk")));
+
+        assertEquals(List.of(0, 1, 2), service.getStatus(id).orElseThrow().missingChunks());
+    }
+
+    @Test
+    void writeChunk_hashMismatch_throwsAndClearsEarlierAttempt() throws IOException {
+        String id = service.start(PNG, 10).uploadId();
+        service.writeChunk(id, 0, body("abcd"), sha256("abcd"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, body("abcd"), sha256("wxyz")));
+
+        assertEquals(List.of(0, 1, 2), service.getStatus(id).orElseThrow().missingChunks());
+    }
+
+    @Test
+    void writeChunk_unknownUpload_throwsNoSuchElementException() {
+        assertThrows(NoSuchElementException.class, () -> service.writeChunk("missing", 0, body("abcd"), sha256("abcd")));
+    }
+
+    @Test
+    void complete_missingChunks_throwsIllegalStateException() throws IOException {
+        String id = service.start(PNG, 10).uploadId();
+        service.writeChunk(id, 0, body("abcd"), sha256("abcd"));
+
+        assertThrows(IllegalStateException.class, () -> service.complete(id));
+        verify(uploadStore, never()).storeFile(any(), any());
+    }
+
+    @Test
+    void complete_allChunks_storesAssembledFile() throws IOException {
+        String id = service.start(PNG, 10).uploadId();
+        service.writeChunk(id, 8, body("ij"), sha256("ij"));
+        service.writeChunk(id, 0, body("abcd"), sha256("abcd"));
+        service.writeChunk(id, 4, body("efgh"), sha256("efgh"));
+        Path file = chunkDir.resolve(id + ".part");
+        when(uploadStore.storeFile(file, PNG)).thenAnswer(invocation -> {
+            assertEquals("abcdefghij", Files.readString(file));
+            return new UploadStore.StoredUpload("hash", "hash.png", "/uploads/hash.png", 10, false);
+        });
+
+        assertEquals("hash.png", service.complete(id).path());
+        assertTrue(service.getStatus(id).isEmpty());
+    }
+
+    @Test
+    void expireSessions_idleUpload_isRemoved() throws Exception {
+        service = service(Duration.ZERO, 2);
+        String id = service.start(PNG, 10).uploadId();
+        Thread.sleep(5);
+
+        service.expireSessions();
+
+        assertTrue(service.getStatus(id).isEmpty());
+        assertFalse(Files.exists(chunkDir.resolve(id + ".part")));
+    }
+
+    @Test
+    void expireSessions_chunkInFlight_skipsUploadWithoutBlocking() throws Exception {
+        service = service(Duration.ZERO, 2);
+        String id = service.start(PNG, 10).uploadId();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<UploadStatus> write = writeAsync(id, stalledBody("abcd", reading, release));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> service.expireSessions());
+        assertTrue(service.getStatus(id).isPresent());
+
+        release.countDown();
+        assertEquals(List.of(1, 2), write.get(5, TimeUnit.SECONDS).missingChunks());
+    }
+
+    @Test
+    void abort_chunkStalledMidWrite_givesUpAndWriterRemovesUpload() throws Exception {
+        service = service(Duration.ofHours(1), 1);
+        String id = service.start(PNG, 10).uploadId();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<UploadStatus> write = writeAsync(id, stalledBody("abcd", reading, release));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+            () -> assertThrows(IllegalStateException.class, () -> service.abort(id)));
+        assertTrue(service.getStatus(id).isEmpty());
+        assertThrows(NoSuchElementException.class, () -> service.complete(id));
+
+        release.countDown();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> write.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NoSuchElementException.class, failure.getCause());
+        assertFalse(Files.exists(chunkDir.resolve(id + ".part")));
+        // Its session slot was returned
+        service.start(PNG, 4);
+    }
+
+    @Test
+    void complete_chunkStalledMidWrite_givesUpWithIllegalStateException() throws Exception {
+        String id = service.start(PNG, 4).uploadId();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<UploadStatus> write = writeAsync(id, stalledBody("abcd", reading, release));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+            () -> assertThrows(IllegalStateException.class, () -> service.complete(id)));
+
+        release.countDown();
+        assertEquals(List.of(), write.get(5, TimeUnit.SECONDS).missingChunks());
+        when(uploadStore.storeFile(any(), eq(PNG))).thenReturn(new UploadStore.StoredUpload("hash", "hash.png", "/uploads/hash.png", 4, false));
+        assertEquals("hash.png", service.complete(id).path());
+    }
+
+    @Test
+    void abort_idleUpload_removesItAtOnce() throws IOException {
+        String id = service.start(PNG, 10).uploadId();
+
+        assertTrue(service.abort(id));
+
+        assertFalse(service.abort(id));
+        assertFalse(Files.exists(chunkDir.resolve(id + ".part")));
+    }
+
+    private CompletableFuture<UploadStatus> writeAsync(String id, InputStream body) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.writeChunk(id, 0, body, sha256("abcd"));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * A chunk body whose reads wait for {@code release}, like a client that stopped sending.
+     */
+    private static InputStream stalledBody(String content, CountDownLatch reading, CountDownLatch release) {
+        return new InputStream() {
+            private final InputStream data = body(content);
+
+            @Override
+            public int read() throws IOException {
+                return data.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return data.read(b, off, len);
+            }
+        };
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String sha256(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(content.getBytes(StandardCharsets.US_ASCII)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
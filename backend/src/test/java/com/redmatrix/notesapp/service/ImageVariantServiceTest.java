@@ -0,0 +1,131 @@
+package com.redmatrix.notesapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantServiceTest {
+
+    @TempDir
+    private Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ImageVariantService service = service(40_000_000L, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private ImageVariantService service(long maxPixels, Duration requestTimeout) {
+        return new ImageVariantService(new int[] {960, 320, 320}, 1, 10, maxPixels, requestTimeout, 100, registry);
+    }
+
+    @Test
+    void snapWidth_picksSmallestConfiguredWidthThatFits() {
+        assertEquals(320, service.snapWidth(1));
+        assertEquals(320, service.snapWidth(320));
+        assertEquals(960, service.snapWidth(321));
+        assertEquals(960, service.snapWidth(960));
+        assertEquals(0, service.snapWidth(961));
+    }
+
+    @Test
+    void variantFor_widerImage_writesResizedVariant() throws IOException {
+        Path original = png("photo.png", 1000, 500);
+
+        Path variant = service.variantFor(original, 320);
+
+        assertEquals(dir.resolve("photo.w320.png"), variant);
+        BufferedImage image = ImageIO.read(variant.toFile());
+        assertEquals(320, image.getWidth());
+        assertEquals(160, image.getHeight());
+        assertEquals(1.0, registry.counter("upload.variant.generated", "width", "320", "trigger", "request").count());
+        // Served from disk from now on
+        assertEquals(variant, service.variantFor(original, 320));
+        assertEquals(1.0, registry.counter("upload.variant.generated", "width", "320", "trigger", "request").count());
+    }
+
+    @Test
+    void variantFor_imageNoWiderThanWidth_servesOriginalWithoutCopy() throws IOException {
+        Path original = png("small.png", 500, 100);
+
+        assertEquals(original, service.variantFor(original, 960));
+        // Narrower widths are still resized
+        assertEquals(dir.resolve("small.w320.png"), service.variantFor(original, 320));
+        assertFalse(Files.exists(dir.resolve("small.w960.png")));
+    }
+
+    @Test
+    void variantFor_tooManyPixels_servesOriginalWithoutCopy() throws IOException {
+        service.shutdown();
+        service = service(1000, Duration.ofSeconds(5));
+        Path original = png("huge.png", 1000, 500);
+
+        assertEquals(original, service.variantFor(original, 320));
+        assertEquals(original, service.variantFor(original, 960));
+
+        assertFalse(Files.exists(dir.resolve("huge.w320.png")));
+        assertFalse(Files.exists(dir.resolve("huge.w960.png")));
+    }
+
+    @Test
+    void variantFor_corruptImage_isNotDecodedAgain() throws IOException {
+        Path original = Files.write(dir.resolve("broken.png"), new byte[] {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3});
+
+        assertEquals(original, service.variantFor(original, 320));
+        // Even once the file would decode, the failure is remembered
+        ImageIO.write(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+
+        assertEquals(original, service.variantFor(original, 320));
+        assertEquals(original, service.variantFor(original, 960));
+        assertFalse(Files.exists(dir.resolve("broken.w320.png")));
+    }
+
+    @Test
+    void variantFor_notReadyWithinTimeout_servesOriginalAndFinishesInBackground() throws Exception {
+        service.shutdown();
+        service = service(40_000_000L, Duration.ZERO);
+        Path original = png("slow.png", 2000, 1000);
+
+        assertEquals(original, service.variantFor(original, 320));
+
+        Path variant = dir.resolve("slow.w320.png");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Files.exists(variant)) {
+            assertTrue(System.nanoTime() < deadline, "variant never written");
+            Thread.sleep(10);
+        }
+        assertEquals(variant, service.variantFor(original, 320));
+    }
+
+    @Test
+    void variantFor_formatNotResizedOrOriginalWidth_servesOriginal() throws IOException {
+        Path gif = Files.write(dir.resolve("anim.gif"), new byte[] {1});
+        Path png = png("photo.png", 1000, 500);
+
+        assertEquals(gif, service.variantFor(gif, 320));
+        assertEquals(png, service.variantFor(png, 0));
+        assertEquals(dir.resolve("photo.w320.png"), service.variantFor(png, 320));
+        // A variant is never resized again
+        assertEquals(dir.resolve("photo.w320.png"), service.variantFor(dir.resolve("photo.w320.png"), 320));
+    }
+
+    private Path png(String name, int width, int height) throws IOException {
+        Path file = dir.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return file;
+    }
+}
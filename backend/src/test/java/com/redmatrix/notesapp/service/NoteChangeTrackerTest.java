@@ -0,0 +1,191 @@
+package com.redmatrix.notesapp.service;
+
+import com.redmatrix.notesapp.entity.Note;
+import com.redmatrix.notesapp.entity.NoteChangeCounter;
+import com.redmatrix.notesapp.entity.NoteTombstone;
+import com.redmatrix.notesapp.repository.NoteChangeCounterRepository;
+import com.redmatrix.notesapp.repository.NoteRepository;
+import com.redmatrix.notesapp.repository.NoteTombstoneRepository;
+import com.redmatrix.notesapp.service.NoteChangeTracker.ChangeCursor;
+import com.redmatrix.notesapp.service.NoteChangeTracker.ChangePage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class NoteChangeTrackerTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private NoteTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private NoteChangeCounterRepository counterRepository;
+
+    @InjectMocks
+    private NoteChangeTracker changeTracker;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(changeTracker, "maxPageSize", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void parse_blank_startsFromTheBeginning() {
+        assertEquals(ChangeCursor.START, ChangeCursor.parse(null));
+        assertEquals(ChangeCursor.START, ChangeCursor.parse(" "));
+    }
+
+    @Test
+    void parse_bareSequence_coversEveryNoteWithThatSequence() {
+        assertEquals(new ChangeCursor(42, Long.MAX_VALUE, 42), ChangeCursor.parse("42"));
+    }
+
+    @Test
+    void parse_fullCursor_roundTrips() {
+        ChangeCursor cursor = ChangeCursor.parse("42-7-40");
+
+        assertEquals(new ChangeCursor(42, 7, 40), cursor);
+        assertEquals("42-7-40", cursor.toString());
+    }
+
+    @Test
+    void parse_malformed_throwsIllegalArgumentException() {
+        for (String value : List.of("abc", "1-2", "1-2-3-4", "-1", "1--2-3", "1-x-3")) {
+            assertThrows(IllegalArgumentException.class, () -> ChangeCursor.parse(value), value);
+        }
+    }
+
+    @Test
+    void getChanges_limitOutOfRange_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> changeTracker.getChanges(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> changeTracker.getChanges(null, 501));
+    }
+
+    @Test
+    void getChanges_cursorSyncedBeforePurgedTombstones_throwsIllegalStateException() {
+        when(counterRepository.currentValue(NoteChangeCounter.TOMBSTONE_HORIZON)).thenReturn(50L);
+
+        assertThrows(IllegalStateException.class, () -> changeTracker.getChanges("60-3-49", 10));
+        verifyNoInteractions(noteRepository, tombstoneRepository);
+    }
+
+    @Test
+    void getChanges_fromStart_ignoresTombstoneHorizon() {
+        when(counterRepository.currentValue(NoteChangeCounter.TOMBSTONE_HORIZON)).thenReturn(50L);
+        when(counterRepository.currentValue(NoteChangeCounter.SEQUENCE)).thenReturn(80L);
+
+        ChangePage page = changeTracker.getChanges(null, 10);
+
+        assertTrue(page.notes().isEmpty());
+        assertEquals("0-0-80", page.nextCursor());
+    }
+
+    @Test
+    void getChanges_notesAndTombstones_mergesInFeedOrder() {
+        when(counterRepository.currentValue(NoteChangeCounter.TOMBSTONE_HORIZON)).thenReturn(5L);
+        when(counterRepository.currentValue(NoteChangeCounter.SEQUENCE)).thenReturn(20L);
+        when(noteRepository.findChangedAfter(eq(10L), eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(note(4L, 11L), note(2L, 13L)));
+        when(tombstoneRepository.findChangedAfter(eq(10L), eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(tombstone(3L, 11L)));
+
+        ChangePage page = changeTracker.getChanges("10-0-10", 10);
+
+        assertEquals(List.of(4L, 2L), page.notes().stream().map(Note::getId).toList());
+        assertEquals(List.of(3L), page.deleted());
+        assertFalse(page.hasMore());
+        assertEquals("13-2-20", page.nextCursor());
+    }
+
+    @Test
+    void getChanges_morePending_keepsSyncedAtUntilCaughtUp() {
+        when(counterRepository.currentValue(NoteChangeCounter.TOMBSTONE_HORIZON)).thenReturn(5L);
+        when(counterRepository.currentValue(NoteChangeCounter.SEQUENCE)).thenReturn(20L);
+        when(noteRepository.findChangedAfter(eq(10L), eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(note(1L, 11L), note(2L, 12L)));
+
+        ChangePage page = changeTracker.getChanges("10-0-10", 1);
+
+        assertEquals(List.of(1L), page.notes().stream().map(Note::getId).toList());
+        assertTrue(page.hasMore());
+        assertEquals("11-1-10", page.nextCursor());
+    }
+
+    @Test
+    void beforeCommit_changedNotesAndDeletions_shareOneSequenceTakenAfterFlush() {
+        TransactionSynchronizationManager.initSynchronization();
+        Note saved = note(1L, 5L);
+        changeTracker.noteChanged(saved);
+        changeTracker.notesChanged(List.of(3L, 2L));
+        changeTracker.recordDeletion(9L);
+        // Registered once per transaction however many changes there are
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        verifyNoInteractions(counterRepository);
+        when(counterRepository.currentValue(NoteChangeCounter.SEQUENCE)).thenReturn(8L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        InOrder inOrder = inOrder(noteRepository, counterRepository);
+        inOrder.verify(noteRepository).flush();
+        inOrder.verify(counterRepository).increment(NoteChangeCounter.SEQUENCE);
+        inOrder.verify(noteRepository).updateChangeSeq(List.of(1L, 2L, 3L), 8L);
+        assertEquals(8L, saved.getChangeSeq());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NoteTombstone>> tombstones = ArgumentCaptor.forClass(List.class);
+        verify(tombstoneRepository).saveAll(tombstones.capture());
+        assertEquals(1, tombstones.getValue().size());
+        assertEquals(9L, tombstones.getValue().get(0).getNoteId());
+        assertEquals(8L, tombstones.getValue().get(0).getChangeSeq());
+    }
+
+    @Test
+    void rollback_pendingChanges_neverTouchesCounter() {
+        TransactionSynchronizationManager.initSynchronization();
+        changeTracker.notesChanged(List.of(1L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(counterRepository);
+        verify(noteRepository, never()).updateChangeSeq(any(), anyLong());
+    }
+
+    private static Note note(Long id, Long changeSeq) {
+        Note note = new Note("Title", "Content");
+        note.setId(id);
+        note.setChangeSeq(changeSeq);
+        return note;
+    }
+
+    private static NoteTombstone tombstone(Long noteId, Long changeSeq) {
+        return new NoteTombstone(noteId, changeSeq, OffsetDateTime.now());
+    }
+}
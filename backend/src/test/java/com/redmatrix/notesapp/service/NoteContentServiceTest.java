@@ -0,0 +1,114 @@
+package com.redmatrix.notesapp.service;
+
+import com.redmatrix.notesapp.service.NoteContentService.ContentInfo;
+import com.redmatrix.notesapp.service.NoteContentService.ContentSink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class NoteContentServiceTest {
+
+    private static final String RANGE_SQL = "SELECT SUBSTRING(CAST(content AS BINARY), ?, ?) AS content FROM notes WHERE id = ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcTemplate streamingJdbcTemplate;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private final NoteContentService service = new NoteContentService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "streamingJdbcTemplate", streamingJdbcTemplate);
+        ReflectionTestUtils.setField(service, "rangeSql", RANGE_SQL);
+    }
+
+    @Test
+    void writeContent_range_selectsOnlyTheRequestedBytes() throws Exception {
+        stubInfo(7L, 50_000_000L);
+        when(resultSet.getBinaryStream("content")).thenReturn(stream("0123"));
+        when(jdbcTemplate.query(eq(RANGE_SQL), any(RowMapper.class), eq(1L), eq(4L), eq(1L)))
+            .thenAnswer(invocation -> List.of(invocation.getArgument(1, RowMapper.class).mapRow(resultSet, 0)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertTrue(service.writeContent(1L, info -> new ContentSink(out, 0, 3)));
+
+        assertEquals("0123", out.toString(StandardCharsets.UTF_8));
+        verifyNoInteractions(streamingJdbcTemplate);
+    }
+
+    @Test
+    void writeContent_wholeContent_readsThroughStreamingStatement() throws Exception {
+        stubInfo(7L, 10L);
+        when(resultSet.getBinaryStream("content")).thenReturn(stream("0123456789"));
+        when(streamingJdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L)))
+            .thenAnswer(invocation -> List.of(invocation.getArgument(1, RowMapper.class).mapRow(resultSet, 0)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContentInfo[] seen = new ContentInfo[1];
+
+        assertTrue(service.writeContent(1L, info -> {
+            seen[0] = info;
+            return new ContentSink(out, 0, info.length() - 1);
+        }));
+
+        assertEquals(new ContentInfo(7L, 10L), seen[0]);
+        assertEquals("0123456789", out.toString(StandardCharsets.UTF_8));
+        verify(jdbcTemplate, never()).query(eq(RANGE_SQL), any(RowMapper.class), any(), any(), any());
+    }
+
+    @Test
+    void writeContent_nothingToCopy_readsNoContent() throws IOException {
+        stubInfo(7L, 10L);
+
+        assertTrue(service.writeContent(1L, info -> null));
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), eq(1L));
+        verifyNoInteractions(streamingJdbcTemplate);
+    }
+
+    @Test
+    void writeContent_unknownNote_returnsFalseWithoutOpeningTarget() throws IOException {
+        when(jdbcTemplate.query(startsWith("SELECT change_seq"), any(RowMapper.class), eq(1L))).thenReturn(List.of());
+
+        assertFalse(service.writeContent(1L, info -> fail("opened for a missing note")));
+    }
+
+    @Test
+    void writeContent_deletedBeforeContentRead_returnsFalse() throws IOException {
+        stubInfo(7L, 10L);
+        when(jdbcTemplate.query(eq(RANGE_SQL), any(RowMapper.class), eq(3L), eq(2L), eq(1L))).thenReturn(List.of());
+
+        assertFalse(service.writeContent(1L, info -> new ContentSink(new ByteArrayOutputStream(), 2, 3)));
+    }
+
+    private void stubInfo(long changeSeq, long length) {
+        when(jdbcTemplate.query(startsWith("SELECT change_seq"), any(RowMapper.class), eq(1L)))
+            .thenReturn(List.of(new ContentInfo(changeSeq, length)));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
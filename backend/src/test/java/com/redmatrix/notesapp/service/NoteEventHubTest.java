@@ -0,0 +1,235 @@
+package com.redmatrix.notesapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redmatrix.notesapp.service.NoteEventHub.NoteEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("null")
+class NoteEventHubTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private RecordingHub hub;
+
+    @AfterEach
+    void tearDown() {
+        if (hub != null) {
+            hub.shutdown();
+        }
+    }
+
+    @Test
+    void publish_matchingSubscribers_sendsEachOneMessageOnce() throws Exception {
+        hub = new RecordingHub(8, 10);
+        hub.subscribe(Set.of(1L), null);
+        hub.subscribe(Set.of(), "wallet");
+        hub.subscribe(Set.of(1L), "wallet");
+        hub.subscribe(Set.of(2L), null);
+        RecordingEmitter byNote = hub.emitters.get(0);
+        RecordingEmitter byWallet = hub.emitters.get(1);
+        RecordingEmitter byBoth = hub.emitters.get(2);
+        RecordingEmitter other = hub.emitters.get(3);
+
+        hub.publish(event(1L, "wallet"));
+        byNote.awaitSent(2);
+        byWallet.awaitSent(2);
+        byBoth.awaitSent(2);
+        // One sender thread, so everything queued before this has been sent once it arrives
+        hub.publish(event(2L, null));
+        other.awaitSent(2);
+
+        for (RecordingEmitter emitter : List.of(byNote, byWallet, byBoth)) {
+            assertEquals(2, emitter.sent.size());
+            assertEquals(":subscribed", emitter.sent.get(0));
+            assertTrue(emitter.sent.get(1).contains("event:note.updated"), emitter.sent.get(1));
+            assertTrue(emitter.sent.get(1).contains("\"noteId\":1"), emitter.sent.get(1));
+        }
+        assertTrue(other.sent.get(1).contains("\"noteId\":2"), other.sent.get(1));
+    }
+
+    @Test
+    void publish_bufferFull_dropsOldestAndTellsClient() throws Exception {
+        hub = new RecordingHub(2, 10);
+        hub.subscribe(Set.of(1L), null);
+        RecordingEmitter emitter = hub.emitters.get(0);
+        CountDownLatch release = emitter.blockNextSend();
+
+        hub.publish(event(1L, "first"));
+        emitter.awaitBlocked();
+        hub.publish(event(1L, "second"));
+        hub.publish(event(1L, "third"));
+        hub.publish(event(1L, "fourth"));
+        release.countDown();
+        emitter.awaitSent(5);
+
+        assertEquals(":subscribed", emitter.sent.get(0));
+        assertTrue(emitter.sent.get(1).contains("first"));
+        assertEquals("event:overflow\ndata:{\"dropped\":1}", emitter.sent.get(2));
+        assertTrue(emitter.sent.get(3).contains("third"));
+        assertTrue(emitter.sent.get(4).contains("fourth"));
+        assertEquals(1.0, registry.counter("notes.events.dropped").count());
+    }
+
+    @Test
+    void heartbeat_eventArrivesWhileKeepaliveIsSent_isStillDelivered() throws Exception {
+        hub = new RecordingHub(8, 10);
+        hub.subscribe(Set.of(1L), null);
+        RecordingEmitter emitter = hub.emitters.get(0);
+        CountDownLatch release = emitter.blockNextSend();
+
+        hub.heartbeat();
+        emitter.awaitBlocked();
+        hub.publish(event(1L, "wallet"));
+        release.countDown();
+        emitter.awaitSent(3);
+
+        assertEquals(":keepalive", emitter.sent.get(1));
+        assertTrue(emitter.sent.get(2).contains("event:note.updated"));
+    }
+
+    @Test
+    void heartbeat_pendingMessages_sendsThemInsteadOfKeepalive() throws Exception {
+        hub = new RecordingHub(8, 10);
+        hub.subscribe(Set.of(1L), null);
+        RecordingEmitter emitter = hub.emitters.get(0);
+        CountDownLatch release = emitter.blockNextSend();
+        hub.publish(event(1L, "first"));
+        emitter.awaitBlocked();
+        hub.publish(event(1L, "second"));
+
+        // Skipped: the subscriber's drain is still running
+        hub.heartbeat();
+        release.countDown();
+        emitter.awaitSent(3);
+        hub.publish(event(1L, "third"));
+        emitter.awaitSent(4);
+
+        assertFalse(emitter.sent.contains(":keepalive"), emitter.sent.toString());
+    }
+
+    @Test
+    void subscribe_atLimit_throwsIllegalStateException() throws Exception {
+        hub = new RecordingHub(8, 1);
+        hub.subscribe(Set.of(1L), null);
+
+        assertThrows(IllegalStateException.class, () -> hub.subscribe(Set.of(2L), null));
+        assertEquals(1, hub.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_openingSendFails_releasesSlot() {
+        hub = new RecordingHub(8, 1);
+        hub.failNextOpen = true;
+
+        assertThrows(IllegalStateException.class, () -> hub.subscribe(Set.of(1L), null));
+
+        assertEquals(0, hub.getSubscriberCount());
+        hub.subscribe(Set.of(1L), null);
+        assertEquals(1, hub.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_noNotesOrWallet_throwsIllegalArgumentException() {
+        hub = new RecordingHub(8, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> hub.subscribe(Set.of(), " "));
+        assertEquals(0, hub.getSubscriberCount());
+    }
+
+    private static NoteEvent event(Long noteId, String wallet) {
+        return new NoteEvent("note.updated", noteId, wallet, "VERIFIED", null, null, OffsetDateTime.now());
+    }
+
+    /**
+     * A hub with one sender thread whose emitters record what they are sent.
+     */
+    private final class RecordingHub extends NoteEventHub {
+
+        final List<RecordingEmitter> emitters = new ArrayList<>();
+
+        boolean failNextOpen;
+
+        RecordingHub(int bufferSize, int maxSubscribers) {
+            super(new ObjectMapper().findAndRegisterModules(), bufferSize, maxSubscribers, Duration.ofMinutes(1), 1, registry);
+        }
+
+        @Override
+        SseEmitter newEmitter(long timeout) {
+            RecordingEmitter emitter = new RecordingEmitter(failNextOpen);
+            failNextOpen = false;
+            emitters.add(emitter);
+            return emitter;
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final List<String> sent = new CopyOnWriteArrayList<>();
+
+        private boolean fail;
+        private volatile CountDownLatch release;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+
+        RecordingEmitter(boolean fail) {
+            this.fail = fail;
+        }
+
+        /**
+         * Make the next send wait until the returned latch is released.
+         */
+        CountDownLatch blockNextSend() {
+            release = new CountDownLatch(1);
+            return release;
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue(blocked.await(5, TimeUnit.SECONDS), "send never started");
+        }
+
+        void awaitSent(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < count) {
+                assertTrue(System.nanoTime() < deadline, "sent only " + sent);
+                Thread.sleep(5);
+            }
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) {
+                fail = false;
+                throw new IOException("Broken pipe");
+            }
+            CountDownLatch gate = release;
+            if (gate != null) {
+                release = null;
+                blocked.countDown();
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(builder.build().stream()
+                .map(part -> part.getData().toString())
+                .collect(Collectors.joining())
+                .trim());
+        }
+    }
+}
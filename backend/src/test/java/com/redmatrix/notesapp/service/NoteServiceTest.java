@@ -23,6 +23,12 @@ class NoteServiceTest {
     @Mock
     private NoteRepository noteRepository;
 
+    @Mock
+    private NoteEventHub noteEventHub;
+
+    @Mock
+    private NoteChangeTracker changeTracker;
+
     @InjectMocks
     private NoteService noteService;
 
@@ -51,6 +57,7 @@ class NoteServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("Title", result.getTitle());
         assertEquals("Content", result.getContent());
+        verify(changeTracker).noteChanged(saved);
     }
 
     @Test
@@ -0,0 +1,145 @@
+package com.redmatrix.notesapp.service;
+
+import com.redmatrix.notesapp.repository.NoteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class NoteStatusPropagatorTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private NoteChangeTracker changeTracker;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @InjectMocks
+    private NoteStatusPropagator propagator;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(propagator, "maxBatch", 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.getArgument(0, TransactionCallback.class).doInTransaction(transactionStatus));
+    }
+
+    @AfterEach
+    void tearDown() {
+        propagator.flush();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void propagate_outsideBatch_updatesNoteRightAway() {
+        propagator.propagate(1L, true);
+
+        verify(noteRepository).updateVerificationStatus(1L, NoteStatusPropagator.VERIFIED);
+        verify(changeTracker).notesChanged(List.of(1L));
+    }
+
+    @Test
+    void propagate_nullNoteId_isIgnored() {
+        propagator.propagate(null, true);
+
+        verifyNoInteractions(noteRepository, changeTracker);
+    }
+
+    @Test
+    void flush_batch_lastResultPerNoteWinsAndOneUpdatePerStatus() {
+        when(noteRepository.updateVerificationStatus(anyCollection(), anyString()))
+            .thenAnswer(invocation -> invocation.getArgument(0, List.class).size());
+        propagator.beginBatch();
+
+        propagator.propagate(3L, false);
+        propagator.propagate(1L, true);
+        propagator.propagate(3L, true);
+        propagator.propagate(2L, false);
+        verifyNoInteractions(noteRepository);
+
+        assertEquals(3, propagator.flush());
+
+        verify(noteRepository).updateVerificationStatus(List.of(1L, 3L), NoteStatusPropagator.VERIFIED);
+        verify(noteRepository).updateVerificationStatus(List.of(2L), NoteStatusPropagator.UNVERIFIED);
+        verify(changeTracker).notesChanged(List.of(1L, 3L));
+        verify(changeTracker).notesChanged(List.of(2L));
+        // All statuses are written in one transaction
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void flush_moreNotesThanMaxBatch_splitsInList() {
+        when(noteRepository.updateVerificationStatus(anyCollection(), anyString()))
+            .thenAnswer(invocation -> invocation.getArgument(0, List.class).size());
+        propagator.beginBatch();
+        for (long noteId = 1; noteId <= 5; noteId++) {
+            propagator.propagate(noteId, true);
+        }
+
+        assertEquals(5, propagator.flush());
+
+        verify(noteRepository).updateVerificationStatus(List.of(1L, 2L), NoteStatusPropagator.VERIFIED);
+        verify(noteRepository).updateVerificationStatus(List.of(3L, 4L), NoteStatusPropagator.VERIFIED);
+        verify(noteRepository).updateVerificationStatus(List.of(5L), NoteStatusPropagator.VERIFIED);
+    }
+
+    @Test
+    void propagate_inTransaction_collectedOnlyOnCommit() {
+        when(noteRepository.updateVerificationStatus(anyCollection(), anyString()))
+            .thenAnswer(invocation -> invocation.getArgument(0, List.class).size());
+        propagator.beginBatch();
+
+        TransactionSynchronizationManager.initSynchronization();
+        propagator.propagate(1L, true);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        TransactionSynchronizationManager.initSynchronization();
+        propagator.propagate(2L, true);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, propagator.flush());
+        verify(noteRepository).updateVerificationStatus(List.of(2L), NoteStatusPropagator.VERIFIED);
+    }
+
+    @Test
+    void flush_noBatchOrNothingCollected_doesNothing() {
+        assertEquals(0, propagator.flush());
+
+        propagator.beginBatch();
+        assertEquals(0, propagator.flush());
+
+        verifyNoInteractions(transactionTemplate, noteRepository);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,224 @@
+package com.redmatrix.notesapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redmatrix.notesapp.service.NoteTransferService.ImportStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class NoteTransferServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private NoteChangeTracker changeTracker;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    /**
+     * Titles of the rows in each JDBC batch, in order.
+     */
+    private final List<List<String>> batches = new ArrayList<>();
+
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(transactionStatus);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        // Binds every row to a statement and hands out ids like the database would
+        lenient().when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+            any(KeyHolder.class))).thenAnswer(invocation -> {
+                BatchPreparedStatementSetter setter = invocation.getArgument(1);
+                KeyHolder keys = invocation.getArgument(2);
+                batches.add(new ArrayList<>());
+                for (int i = 0; i < setter.getBatchSize(); i++) {
+                    setter.setValues(preparedStatement, i);
+                    keys.getKeyList().add(Map.of("id", nextId++));
+                }
+                return new int[setter.getBatchSize()];
+            });
+        lenient().doAnswer(invocation -> batches.get(batches.size() - 1).add(invocation.getArgument(1)))
+            .when(preparedStatement).setString(eq(1), any());
+    }
+
+    private NoteTransferService service(int batchSize, DataSize batchBytes) {
+        return service(batchSize, batchBytes, DataSize.ofMegabytes(1));
+    }
+
+    private NoteTransferService service(int batchSize, DataSize batchBytes, DataSize maxLineSize) {
+        return new NoteTransferService(dataSource, jdbcTemplate, transactionTemplate, changeTracker,
+            new ObjectMapper().findAndRegisterModules(), batchSize, batchBytes, maxLineSize, 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void importNotes_blankAndInvalidLines_areSkippedAndReported() throws IOException {
+        ImportStatus status = service(10, DataSize.ofMegabytes(1)).importNotes(ndjson(
+            note("a"),
+            "",
+            "   ",
+            "{not json",
+            "{\"title\":\"\",\"content\":\"x\"}",
+            note("b")));
+
+        assertEquals(6, status.linesRead());
+        assertEquals(2, status.imported());
+        assertEquals(2, status.skipped());
+        assertEquals(2, status.errors().size());
+        assertTrue(status.errors().get(0).startsWith("line 4: "));
+        assertTrue(status.errors().get(1).startsWith("line 5: Note title cannot be empty"));
+        assertEquals(List.of(List.of("a", "b")), batches);
+        assertNotNull(status.finishedAt());
+        assertFalse(status.aborted());
+    }
+
+    @Test
+    void importNotes_valuesLongerThanColumns_areSkippedAndReported() throws IOException {
+        String longTitle = "t".repeat(256);
+        // 255 characters, but 510 UTF-16 units
+        String emojiTitle = "\uD83D\uDE00".repeat(255);
+
+        ImportStatus status = service(10, DataSize.ofMegabytes(1)).importNotes(ndjson(
+            note(longTitle),
+            note(emojiTitle),
+            "{\"title\":\"c\",\"content\":\"x\",\"ownerWallet\":\"" + "w".repeat(300) + "\"}"));
+
+        assertEquals(1, status.imported());
+        assertEquals(2, status.skipped());
+        assertEquals("line 1: Note title is longer than 255 characters", status.errors().get(0));
+        assertEquals("line 3: Note ownerWallet is longer than 255 characters", status.errors().get(1));
+        assertEquals(List.of(List.of(emojiTitle)), batches);
+    }
+
+    @Test
+    void importNotes_lineLongerThanLimit_isSkippedWithoutBufferingIt() throws IOException {
+        String huge = note("x".repeat(10_000));
+
+        ImportStatus status = service(10, DataSize.ofMegabytes(1), DataSize.ofBytes(1000)).importNotes(
+            ndjson(note("a"), huge, note("b")));
+
+        assertEquals(3, status.linesRead());
+        assertEquals(2, status.imported());
+        assertEquals(List.of("line 2: Line longer than 1000 characters"), status.errors());
+        assertEquals(List.of(List.of("a", "b")), batches);
+    }
+
+    @Test
+    void importNotes_crlfAndNoFinalNewline_readsEveryLine() throws IOException {
+        InputStream in = new ByteArrayInputStream((note("a") + "\r\n\r\n" + note("b"))
+            .getBytes(StandardCharsets.UTF_8));
+
+        ImportStatus status = service(10, DataSize.ofMegabytes(1)).importNotes(in);
+
+        assertEquals(3, status.linesRead());
+        assertEquals(List.of(List.of("a", "b")), batches);
+        assertEquals(0, status.skipped());
+    }
+
+    @Test
+    void importNotes_moreThanBatchSize_insertsOneTransactionPerBatch() throws IOException {
+        ImportStatus status = service(2, DataSize.ofMegabytes(1)).importNotes(ndjson(
+            note("a"), note("b"), note("c"), note("d"), note("e")));
+
+        assertEquals(5, status.imported());
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")), batches);
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        // Each batch's generated ids get their change sequence as it commits
+        verify(changeTracker).notesChanged(List.of(1L, 2L));
+        verify(changeTracker).notesChanged(List.of(3L, 4L));
+        verify(changeTracker).notesChanged(List.of(5L));
+    }
+
+    @Test
+    void importNotes_batchBytesReached_flushesEarly() throws IOException {
+        String line = note("a");
+        ImportStatus status = service(100, DataSize.ofBytes(line.length() * 2L)).importNotes(ndjson(
+            note("a"), note("b"), note("c")));
+
+        assertEquals(3, status.imported());
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), batches);
+    }
+
+    @Test
+    void importNotes_manyInvalidLines_reportsOnlyTheFirstFew() throws IOException {
+        String[] lines = new String[30];
+        Arrays.fill(lines, "nope");
+
+        ImportStatus status = service(10, DataSize.ofMegabytes(1)).importNotes(ndjson(lines));
+
+        assertEquals(30, status.skipped());
+        assertEquals(20, status.errors().size());
+        assertEquals(0, status.imported());
+        verifyNoInteractions(jdbcTemplate, changeTracker);
+    }
+
+    @Test
+    void importNotes_databaseError_stopsAndReportsEarlierBatches() throws IOException {
+        NoteTransferService service = service(1, DataSize.ofMegabytes(1));
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(transactionStatus);
+            return null;
+        }).doThrow(new DataAccessResourceFailureException("down"))
+            .when(transactionTemplate).executeWithoutResult(any());
+
+        ImportStatus status = service.importNotes(ndjson(note("a"), note("b"), note("c")));
+
+        assertTrue(status.aborted());
+        assertEquals(1, status.imported());
+        assertEquals(2, status.linesRead());
+        assertEquals(List.of("Database error, import stopped after line 2"), status.errors());
+        assertNotNull(status.finishedAt());
+        assertEquals(List.of(List.of("a")), batches);
+        assertTrue(service.getRunningImports().isEmpty());
+    }
+
+    private static String note(String title) {
+        return "{\"title\":\"" + title + "\",\"content\":\"content of " + title + "\"}";
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,366 @@
+package com.redmatrix.notesapp.service;
+
+import com.redmatrix.notesapp.entity.ArchivedTransactionVerification;
+import com.redmatrix.notesapp.entity.TransactionVerification;
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+import com.redmatrix.notesapp.repository.ArchivedTransactionVerificationRepository;
+import com.redmatrix.notesapp.repository.TransactionVerificationRepository;
+import com.redmatrix.notesapp.service.TransactionVerificationService.EnqueueOutcome;
+import com.redmatrix.notesapp.service.TransactionVerificationService.EnqueueRequest;
+import com.redmatrix.notesapp.service.TransactionVerificationService.EnqueueResult;
+import com.redmatrix.notesapp.service.TransactionVerificationService.VerificationOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class TransactionVerificationServiceTest {
+
+    @Mock
+    private TransactionVerificationRepository verificationRepository;
+
+    @Mock
+    private ArchivedTransactionVerificationRepository archiveRepository;
+
+    @Mock
+    private BlockfrostService blockfrostService;
+
+    @Mock
+    private VerificationMetrics verificationMetrics;
+
+    @Mock
+    private VerificationStatisticsTracker statisticsTracker;
+
+    @Mock
+    private VerificationRollupService rollupService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private NoteStatusPropagator noteStatusPropagator;
+
+    @Mock
+    private VerificationKeyCache keyCache;
+
+    @Mock
+    private NoteEventHub noteEventHub;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @InjectMocks
+    private TransactionVerificationService verificationService;
+
+    @BeforeEach
+    void runCallbacksInline() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.getArgument(0, TransactionCallback.class).doInTransaction(transactionStatus));
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(transactionStatus);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        // Mockito would answer 0L, which looks like a cached id or an existing row
+        lenient().when(keyCache.get(any())).thenReturn(null);
+        lenient().when(verificationRepository.findMinIdByStatus(any())).thenReturn(null);
+        lenient().when(verificationRepository.findMaxIdByStatus(any())).thenReturn(null);
+    }
+
+    private static TransactionVerification verification(Long id, Long noteId, VerificationStatus status) {
+        TransactionVerification verification = new TransactionVerification(noteId, "tx" + id, "hash", "wallet");
+        verification.setId(id);
+        verification.setStatus(status);
+        return verification;
+    }
+
+    @Test
+    void queueForVerification_cachedHash_readsRowByIdWithoutInserting() {
+        TransactionVerification existing = verification(5L, 10L, VerificationStatus.VERIFIED);
+        when(keyCache.get("tx5")).thenReturn(5L);
+        when(verificationRepository.findById(5L)).thenReturn(Optional.of(existing));
+
+        assertSame(existing, verificationService.queueForVerification(10L, "tx5", "hash", "wallet"));
+
+        verify(verificationRepository, never()).saveAndFlush(any());
+        verify(verificationRepository, never()).findByTxHash(any());
+    }
+
+    @Test
+    void queueForVerification_archivedHash_returnsArchivedWithoutInserting() {
+        TransactionVerification copy = verification(7L, 10L, VerificationStatus.VERIFIED);
+        ArchivedTransactionVerification archived = mock(ArchivedTransactionVerification.class);
+        when(archived.getId()).thenReturn(7L);
+        when(archived.toVerification()).thenReturn(copy);
+        when(archiveRepository.findFirstByTxHashOrderByCreatedAtDesc("tx7")).thenReturn(Optional.of(archived));
+
+        assertSame(copy, verificationService.queueForVerification(10L, "tx7", "hash", "wallet"));
+
+        verify(verificationRepository, never()).saveAndFlush(any());
+        verify(keyCache).put("tx7", 7L);
+        verifyNoInteractions(blockfrostService, noteEventHub);
+    }
+
+    @Test
+    void queueBatch_archivedHash_reportsExistingAndInsertsTheRest() {
+        ReflectionTestUtils.setField(verificationService, "batchMaxItems", 10);
+        ReflectionTestUtils.setField(verificationService, "batchChunkSize", 10);
+        when(verificationRepository.findIdsByTxHashIn(List.of("old", "new"))).thenReturn(List.of());
+        when(archiveRepository.findIdsByTxHashIn(List.of("old", "new")))
+            .thenReturn(List.<Object[]>of(new Object[] {"old", 3L}));
+
+        List<EnqueueResult> results = verificationService.queueBatch(List.of(
+            new EnqueueRequest(1L, "old", "hash", "wallet"),
+            new EnqueueRequest(2L, "new", "hash", "wallet")));
+
+        assertEquals(EnqueueOutcome.EXISTING, results.get(0).outcome());
+        assertEquals(3L, results.get(0).verificationId());
+        assertEquals(EnqueueOutcome.CREATED, results.get(1).outcome());
+        verify(verificationRepository).saveAll(argThat(rows ->
+            ((List<TransactionVerification>) rows).stream().map(TransactionVerification::getTxHash).toList().equals(List.of("new"))));
+    }
+
+    @Test
+    void persistVerificationResults_detachedResult_copiesOntoManagedRow() {
+        TransactionVerification result = verification(1L, 10L, VerificationStatus.VERIFIED);
+        OffsetDateTime verifiedAt = OffsetDateTime.of(2026, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC);
+        result.setRetryCount(2);
+        result.setVerifiedAt(verifiedAt);
+        result.setBlockchainContentHash("hash");
+        result.setBlockchainAction("update");
+        result.setHashMatch(true);
+        TransactionVerification managed = verification(1L, 10L, VerificationStatus.PROCESSING);
+        when(verificationRepository.findAllById(List.of(1L))).thenReturn(List.of(managed));
+
+        verificationService.persistVerificationResults(
+            List.of(new VerificationOutcome(result, VerificationStatus.PROCESSING, true)));
+
+        assertEquals(VerificationStatus.VERIFIED, managed.getStatus());
+        assertEquals(2, managed.getRetryCount());
+        assertEquals(verifiedAt, managed.getVerifiedAt());
+        assertEquals("hash", managed.getBlockchainContentHash());
+        assertEquals("update", managed.getBlockchainAction());
+        assertTrue(managed.getHashMatch());
+        verify(statisticsTracker).recordTransition(VerificationStatus.PROCESSING, VerificationStatus.VERIFIED);
+        verify(rollupService).recordOutcome(result);
+        verify(noteStatusPropagator).propagate(10L, true);
+        verify(noteEventHub).publish(any());
+    }
+
+    @Test
+    void persistVerificationResults_claimWentStale_countsFromCurrentStatus() {
+        TransactionVerification result = verification(1L, 10L, VerificationStatus.FAILED);
+        TransactionVerification managed = verification(1L, 10L, VerificationStatus.PENDING);
+        when(verificationRepository.findAllById(List.of(1L))).thenReturn(List.of(managed));
+
+        verificationService.persistVerificationResults(
+            List.of(new VerificationOutcome(result, VerificationStatus.PROCESSING, false)));
+
+        assertEquals(VerificationStatus.FAILED, managed.getStatus());
+        verify(statisticsTracker).recordTransition(VerificationStatus.PENDING, VerificationStatus.FAILED);
+        verify(noteStatusPropagator).propagate(10L, false);
+    }
+
+    @Test
+    void persistVerificationResults_supersededRow_dropsResult() {
+        TransactionVerification result = verification(1L, 10L, VerificationStatus.VERIFIED);
+        TransactionVerification managed = verification(1L, 10L, VerificationStatus.SUPERSEDED);
+        when(verificationRepository.findAllById(List.of(1L))).thenReturn(List.of(managed));
+
+        verificationService.persistVerificationResults(
+            List.of(new VerificationOutcome(result, VerificationStatus.PROCESSING, true)));
+
+        assertEquals(VerificationStatus.SUPERSEDED, managed.getStatus());
+        assertNull(managed.getVerifiedAt());
+        verifyNoInteractions(statisticsTracker, rollupService, noteStatusPropagator, noteEventHub);
+    }
+
+    @Test
+    void persistVerificationResults_deletedRow_dropsResultAndKeepsOthers() {
+        TransactionVerification gone = verification(1L, 10L, VerificationStatus.VERIFIED);
+        TransactionVerification result = verification(2L, 20L, VerificationStatus.VERIFIED);
+        TransactionVerification managed = verification(2L, 20L, VerificationStatus.PROCESSING);
+        when(verificationRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(managed));
+
+        verificationService.persistVerificationResults(List.of(
+            new VerificationOutcome(gone, VerificationStatus.PROCESSING, true),
+            new VerificationOutcome(result, VerificationStatus.PROCESSING, true)));
+
+        verify(noteStatusPropagator, never()).propagate(eq(10L), anyBoolean());
+        verify(noteStatusPropagator).propagate(20L, true);
+        assertEquals(VerificationStatus.VERIFIED, managed.getStatus());
+    }
+
+    @Test
+    void persistVerificationResults_empty_touchesNothing() {
+        verificationService.persistVerificationResults(List.of());
+
+        verifyNoInteractions(verificationRepository, statisticsTracker);
+    }
+
+    @Test
+    void getNextVerificationBatch_claimsEachStatusWithOneUpdate() {
+        TransactionVerification pending1 = verification(1L, 10L, VerificationStatus.PENDING);
+        TransactionVerification failed = verification(2L, 20L, VerificationStatus.FAILED);
+        TransactionVerification pending2 = verification(3L, 30L, VerificationStatus.PENDING);
+        when(verificationRepository.findVerificationsNeedingRetry(any(Pageable.class)))
+            .thenReturn(List.of(pending1, failed, pending2));
+        when(verificationRepository.transitionIds(eq(VerificationStatus.PENDING), eq(VerificationStatus.PROCESSING),
+            eq(List.of(1L, 3L)), any())).thenReturn(2);
+        when(verificationRepository.transitionIds(eq(VerificationStatus.FAILED), eq(VerificationStatus.PROCESSING),
+            eq(List.of(2L)), any())).thenReturn(1);
+
+        List<TransactionVerification> claimed = verificationService.getNextVerificationBatch(10);
+
+        assertEquals(List.of(pending1, failed, pending2), claimed);
+        assertTrue(claimed.stream().allMatch(v -> v.getStatus() == VerificationStatus.PROCESSING));
+        verify(verificationRepository, times(2)).transitionIds(any(), any(), any(), any());
+        verify(statisticsTracker).recordTransitions(VerificationStatus.PENDING, VerificationStatus.PROCESSING, 2);
+        verify(statisticsTracker).recordTransitions(VerificationStatus.FAILED, VerificationStatus.PROCESSING, 1);
+    }
+
+    @Test
+    void getNextVerificationBatch_rowTakenByAnotherWorker_claimsTheRestOneByOne() {
+        TransactionVerification mine = verification(1L, 10L, VerificationStatus.PENDING);
+        TransactionVerification taken = verification(2L, 20L, VerificationStatus.PENDING);
+        when(verificationRepository.findVerificationsNeedingRetry(any(Pageable.class))).thenReturn(List.of(mine, taken));
+        when(verificationRepository.transitionIds(eq(VerificationStatus.PENDING), eq(VerificationStatus.PROCESSING),
+            eq(List.of(1L, 2L)), any())).thenReturn(1);
+        when(verificationRepository.transitionIds(eq(VerificationStatus.PENDING), eq(VerificationStatus.PROCESSING),
+            eq(List.of(1L)), any())).thenReturn(1);
+        when(verificationRepository.transitionIds(eq(VerificationStatus.PENDING), eq(VerificationStatus.PROCESSING),
+            eq(List.of(2L)), any())).thenReturn(0);
+
+        List<TransactionVerification> claimed = verificationService.getNextVerificationBatch(10);
+
+        assertEquals(List.of(mine), claimed);
+        assertEquals(VerificationStatus.PENDING, taken.getStatus());
+        // The partial bulk claim is rolled back and not counted
+        verify(transactionStatus, times(2)).setRollbackOnly();
+        verify(statisticsTracker).recordTransitions(VerificationStatus.PENDING, VerificationStatus.PROCESSING, 1);
+        verifyNoMoreInteractions(statisticsTracker);
+    }
+
+    @Test
+    void markExpiredVerifications_splitsIdRangeIntoChunks() {
+        ReflectionTestUtils.setField(verificationService, "bulkChunkSize", 100);
+        when(verificationRepository.findMinIdByStatus(VerificationStatus.PENDING)).thenReturn(1L);
+        when(verificationRepository.findMaxIdByStatus(VerificationStatus.PENDING)).thenReturn(250L);
+        when(verificationRepository.expireRange(eq(VerificationStatus.PENDING), eq(VerificationStatus.EXPIRED),
+            anyLong(), anyLong(), any())).thenReturn(4, 0, 2);
+
+        assertEquals(6, verificationService.markExpiredVerifications());
+
+        verify(verificationRepository).expireRange(eq(VerificationStatus.PENDING), eq(VerificationStatus.EXPIRED), eq(1L), eq(100L), any());
+        verify(verificationRepository).expireRange(eq(VerificationStatus.PENDING), eq(VerificationStatus.EXPIRED), eq(101L), eq(200L), any());
+        verify(verificationRepository).expireRange(eq(VerificationStatus.PENDING), eq(VerificationStatus.EXPIRED), eq(201L), eq(250L), any());
+        // No FAILED rows, so no range updates for them
+        verify(verificationRepository, never()).expireRange(eq(VerificationStatus.FAILED), any(), anyLong(), anyLong(), any());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(statisticsTracker).recordTransitions(VerificationStatus.PENDING, VerificationStatus.EXPIRED, 4);
+        verify(statisticsTracker).recordTransitions(VerificationStatus.PENDING, VerificationStatus.EXPIRED, 2);
+        verify(rollupService).recordOutcomes(VerificationStatus.EXPIRED, 4);
+        verify(verificationMetrics).recordExpired(6);
+    }
+
+    @Test
+    void markExpiredVerifications_nothingToExpire_runsNoUpdates() {
+        assertEquals(0, verificationService.markExpiredVerifications());
+
+        verify(verificationRepository, never()).expireRange(any(), any(), anyLong(), anyLong(), any());
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void requeueStaleProcessing_passesCutoffToEveryChunk() {
+        ReflectionTestUtils.setField(verificationService, "bulkChunkSize", 1000);
+        when(verificationRepository.findMinIdByStatus(VerificationStatus.PROCESSING)).thenReturn(5L);
+        when(verificationRepository.findMaxIdByStatus(VerificationStatus.PROCESSING)).thenReturn(9L);
+        when(verificationRepository.transitionStaleRange(eq(VerificationStatus.PROCESSING), eq(VerificationStatus.PENDING),
+            eq(5L), eq(9L), any(), any())).thenReturn(3);
+        OffsetDateTime before = OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(10);
+
+        assertEquals(3, verificationService.requeueStaleProcessing(Duration.ofMinutes(10)));
+
+        ArgumentCaptor<OffsetDateTime> cutoff = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(verificationRepository).transitionStaleRange(eq(VerificationStatus.PROCESSING), eq(VerificationStatus.PENDING),
+            eq(5L), eq(9L), cutoff.capture(), any());
+        assertFalse(cutoff.getValue().isBefore(before.minusSeconds(5)));
+        assertTrue(cutoff.getValue().isBefore(OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(9)));
+        verify(statisticsTracker).recordTransitions(VerificationStatus.PROCESSING, VerificationStatus.PENDING, 3);
+    }
+
+    @Test
+    void queueForVerification_newTransaction_supersedesOlderOfSameNote() {
+        ReflectionTestUtils.setField(verificationService, "supersedeEnabled", true);
+        OffsetDateTime createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+        TransactionVerification inserted = verification(20L, 10L, VerificationStatus.PENDING);
+        inserted.setCreatedAt(createdAt);
+        when(verificationRepository.saveAndFlush(any())).thenReturn(inserted);
+        when(verificationRepository.supersedeOlder(eq(VerificationStatus.PENDING), eq(VerificationStatus.SUPERSEDED),
+            eq(10L), eq(20L), eq(createdAt), any())).thenReturn(2);
+        when(verificationRepository.supersedeOlder(eq(VerificationStatus.PROCESSING), eq(VerificationStatus.SUPERSEDED),
+            eq(10L), eq(20L), eq(createdAt), any())).thenReturn(1);
+        when(verificationRepository.supersedeOlder(eq(VerificationStatus.FAILED), eq(VerificationStatus.SUPERSEDED),
+            eq(10L), eq(20L), eq(createdAt), any())).thenReturn(0);
+
+        assertSame(inserted, verificationService.queueForVerification(10L, "tx20", "hash", "wallet"));
+
+        verify(statisticsTracker).recordTransitions(VerificationStatus.PENDING, VerificationStatus.SUPERSEDED, 2);
+        verify(statisticsTracker).recordTransitions(VerificationStatus.PROCESSING, VerificationStatus.SUPERSEDED, 1);
+        verify(verificationMetrics).recordSuperseded(3);
+    }
+
+    @Test
+    void queueForVerification_supersedeDisabled_leavesOlderVerifications() {
+        ReflectionTestUtils.setField(verificationService, "supersedeEnabled", false);
+        when(verificationRepository.saveAndFlush(any())).thenReturn(verification(20L, 10L, VerificationStatus.PENDING));
+
+        verificationService.queueForVerification(10L, "tx20", "hash", "wallet");
+
+        verify(verificationRepository, never()).supersedeOlder(any(), any(), any(), any(), any(), any());
+        verify(verificationMetrics, never()).recordSuperseded(anyInt());
+    }
+
+    @Test
+    void queueBatch_twoTransactionsOfOneNote_supersedesFromTheLastOnly() {
+        ReflectionTestUtils.setField(verificationService, "supersedeEnabled", true);
+        ReflectionTestUtils.setField(verificationService, "batchMaxItems", 10);
+        ReflectionTestUtils.setField(verificationService, "batchChunkSize", 10);
+        when(verificationRepository.findIdsByTxHashIn(any())).thenReturn(List.of());
+        when(verificationRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<TransactionVerification> rows = invocation.getArgument(0);
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).setId(i + 1L);
+            }
+            return rows;
+        });
+
+        List<EnqueueResult> results = verificationService.queueBatch(List.of(
+            new EnqueueRequest(10L, "first", "hash", "wallet"),
+            new EnqueueRequest(10L, "second", "hash", "wallet")));
+
+        assertEquals(List.of(1L, 2L), results.stream().map(EnqueueResult::verificationId).toList());
+        verify(verificationRepository, times(3)).supersedeOlder(any(), eq(VerificationStatus.SUPERSEDED), eq(10L), eq(2L), any(), any());
+        verify(verificationRepository, never()).supersedeOlder(any(), any(), any(), eq(1L), any(), any());
+    }
+}
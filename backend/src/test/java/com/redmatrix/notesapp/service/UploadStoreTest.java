@@ -0,0 +1,207 @@
+package com.redmatrix.notesapp.service;
+
+import com.redmatrix.notesapp.service.UploadStore.StoredUpload;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadStoreTest {
+
+    private static final byte[] IMAGE = "not really a png".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path dir;
+
+    private UploadStore store() {
+        return new UploadStore(dir.toString());
+    }
+
+    @Test
+    void store_newImage_movesToShardedContentAddressedPath() throws Exception {
+        UploadStore store = store();
+        String hash = sha256(IMAGE);
+
+        StoredUpload stored = store.store(new ByteArrayInputStream(IMAGE), "image/PNG");
+
+        String relative = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".png";
+        assertEquals(new StoredUpload(hash, relative, "/uploads/" + relative, IMAGE.length, false), stored);
+        assertArrayEquals(IMAGE, Files.readAllBytes(dir.resolve(relative)));
+        assertTempEmpty();
+    }
+
+    @Test
+    void store_sameImageAgain_returnsExistingPathAsDuplicate() throws Exception {
+        UploadStore store = store();
+        StoredUpload first = store.store(new ByteArrayInputStream(IMAGE), "image/png");
+        long modified = Files.getLastModifiedTime(dir.resolve(first.path())).toMillis();
+
+        StoredUpload second = store.store(new ByteArrayInputStream(IMAGE), "image/png");
+
+        assertTrue(second.duplicate());
+        assertEquals(first.path(), second.path());
+        assertEquals(first.url(), second.url());
+        assertEquals(modified, Files.getLastModifiedTime(dir.resolve(first.path())).toMillis());
+        assertTempEmpty();
+    }
+
+    @Test
+    void store_sameImageAsOtherType_isStoredSeparately() throws Exception {
+        UploadStore store = store();
+
+        StoredUpload png = store.store(new ByteArrayInputStream(IMAGE), "image/png");
+        StoredUpload jpeg = store.store(new ByteArrayInputStream(IMAGE), "image/jpeg");
+
+        assertFalse(jpeg.duplicate());
+        assertEquals(png.sha256(), jpeg.sha256());
+        assertTrue(jpeg.path().endsWith(".jpg"), jpeg.path());
+    }
+
+    @Test
+    void store_unsupportedType_throwsWithoutWriting() throws IOException {
+        UploadStore store = store();
+
+        assertThrows(IllegalArgumentException.class, () -> store.store(new ByteArrayInputStream(IMAGE), "text/html"));
+        assertThrows(IllegalArgumentException.class, () -> store.store(new ByteArrayInputStream(IMAGE), null));
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void store_storedConcurrentlyBetweenCheckAndMove_reportsDuplicate() throws Exception {
+        UploadStore store = new UploadStore(dir.toString()) {
+            @Override
+            void moveIntoPlace(Path source, Path target) throws IOException {
+                // Another request placed the same image first
+                Files.write(target, IMAGE);
+                throw new FileAlreadyExistsException(target.toString());
+            }
+        };
+
+        StoredUpload stored = store.store(new ByteArrayInputStream(IMAGE), "image/png");
+
+        assertTrue(stored.duplicate());
+        assertArrayEquals(IMAGE, Files.readAllBytes(dir.resolve(stored.path())));
+        assertTempEmpty();
+    }
+
+    @Test
+    void store_concurrentIdenticalUploads_leaveOneFile() throws Exception {
+        UploadStore store = store();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<StoredUpload>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<StoredUpload> upload = () -> {
+                    start.await();
+                    return store.store(new ByteArrayInputStream(IMAGE), "image/png");
+                };
+                results.add(executor.submit(upload));
+            }
+            start.countDown();
+
+            String path = results.get(0).get(10, TimeUnit.SECONDS).path();
+            for (Future<StoredUpload> result : results) {
+                assertEquals(path, result.get(10, TimeUnit.SECONDS).path());
+            }
+            assertArrayEquals(IMAGE, Files.readAllBytes(dir.resolve(path)));
+            try (Stream<Path> files = Files.list(dir.resolve(path).getParent())) {
+                assertEquals(1, files.count());
+            }
+            assertTempEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void storeFile_newImage_movesFileIntoPlace() throws Exception {
+        UploadStore store = store();
+        Path assembled = Files.write(store.chunkDirectory().resolve("session.bin"), IMAGE);
+
+        StoredUpload stored = store.storeFile(assembled, "image/webp");
+
+        assertFalse(stored.duplicate());
+        assertFalse(Files.exists(assembled));
+        assertArrayEquals(IMAGE, Files.readAllBytes(dir.resolve(stored.path())));
+    }
+
+    @Test
+    void storeFile_alreadyStored_deletesFile() throws Exception {
+        UploadStore store = store();
+        StoredUpload first = store.store(new ByteArrayInputStream(IMAGE), "image/gif");
+        Path assembled = Files.write(store.chunkDirectory().resolve("session.bin"), IMAGE);
+
+        StoredUpload stored = store.storeFile(assembled, "image/gif");
+
+        assertTrue(stored.duplicate());
+        assertEquals(first.path(), stored.path());
+        assertFalse(Files.exists(assembled));
+    }
+
+    @Test
+    void resolve_pathInsideUploadDir_returnsFile() {
+        UploadStore store = store();
+
+        assertEquals(Optional.of(dir.resolve("ab/cd/file.png")), store.resolve("ab/cd/file.png"));
+        assertEquals(Optional.of(dir.resolve("legacy.png")), store.resolve("legacy.png"));
+        assertEquals(Optional.of(dir.resolve("tmpfile.png")), store.resolve("tmpfile.png"));
+    }
+
+    @Test
+    void resolve_escapingOrWorkingPaths_returnsEmpty() {
+        UploadStore store = store();
+
+        for (String relative : new String[] {null, "", ".", "../x", "ab/../../x", "/etc/passwd",
+                "tmp", "tmp/upload-1.part", "chunks/session.bin", "ab/../chunks/session.bin"}) {
+            assertEquals(Optional.empty(), store.resolve(relative), relative);
+        }
+    }
+
+    @Test
+    void contentHash_contentAddressedName_returnsHash() {
+        UploadStore store = store();
+        String hash = sha256(IMAGE);
+
+        assertEquals(Optional.of(hash), store.contentHash(dir.resolve("ab/cd/" + hash + ".png")));
+        assertEquals(Optional.empty(), store.contentHash(dir.resolve("3f2a-random-name.png")));
+        assertEquals(Optional.empty(), store.contentHash(dir.resolve(hash.toUpperCase() + ".png")));
+    }
+
+    private void assertTempEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.redmatrix.notesapp.service;
+
+import com.redmatrix.notesapp.entity.TransactionVerification.VerificationStatus;
+import com.redmatrix.notesapp.entity.VerificationStatusCount;
+import com.redmatrix.notesapp.repository.TransactionVerificationRepository;
+import com.redmatrix.notesapp.repository.VerificationStatusCountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class VerificationStatisticsTrackerTest {
+
+    @Mock
+    private TransactionVerificationRepository verificationRepository;
+
+    @Mock
+    private VerificationStatusCountRepository statusCountRepository;
+
+    @InjectMocks
+    private VerificationStatisticsTracker tracker;
+
+    private final List<Object[]> statistics = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(verificationRepository.getVerificationStatistics()).thenReturn(statistics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(tracker);
+    }
+
+    @Test
+    void snapshot_notInitialized_loadsCountsFromTable() {
+        statistics.add(new Object[] {VerificationStatus.PENDING, 3L});
+        statistics.add(new Object[] {VerificationStatus.VERIFIED, 2L});
+
+        Map<String, Long> stats = tracker.snapshot();
+
+        assertEquals(3L, stats.get("pending"));
+        assertEquals(2L, stats.get("verified"));
+        assertEquals(0L, stats.get("failed"));
+        assertEquals(5L, stats.get("total"));
+        verify(verificationRepository).getVerificationStatistics();
+    }
+
+    @Test
+    void recordTransitions_outsideTransaction_appliesImmediately() {
+        tracker.reconcile();
+
+        tracker.recordCreated(VerificationStatus.PENDING);
+        tracker.recordCreated(VerificationStatus.PENDING);
+        tracker.recordTransitions(VerificationStatus.PENDING, VerificationStatus.PROCESSING, 2);
+        tracker.recordTransition(VerificationStatus.PROCESSING, VerificationStatus.VERIFIED);
+
+        Map<String, Long> stats = tracker.snapshot();
+        assertEquals(0L, stats.get("pending"));
+        assertEquals(1L, stats.get("processing"));
+        assertEquals(1L, stats.get("verified"));
+        assertEquals(2L, stats.get("total"));
+        // Counted once at startup only
+        verify(verificationRepository, times(1)).getVerificationStatistics();
+    }
+
+    @Test
+    void recordTransition_sameStatusOrNoRows_isIgnored() {
+        tracker.reconcile();
+
+        tracker.recordTransition(VerificationStatus.PENDING, VerificationStatus.PENDING);
+        tracker.recordTransitions(VerificationStatus.PENDING, VerificationStatus.FAILED, 0);
+
+        assertEquals(0L, tracker.snapshot().get("total"));
+    }
+
+    @Test
+    void recordTransition_inTransaction_appliesOnlyAfterCommit() {
+        tracker.reconcile();
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.recordCreated(VerificationStatus.PENDING);
+        tracker.recordTransition(VerificationStatus.PENDING, VerificationStatus.VERIFIED);
+        assertEquals(0L, tracker.snapshot().get("verified"));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        Map<String, Long> stats = tracker.snapshot();
+        assertEquals(0L, stats.get("pending"));
+        assertEquals(1L, stats.get("verified"));
+    }
+
+    @Test
+    void recordTransition_rolledBack_isDiscarded() {
+        tracker.reconcile();
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.recordCreated(VerificationStatus.PENDING);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(0L, tracker.snapshot().get("pending"));
+        assertNull(TransactionSynchronizationManager.getResource(tracker));
+    }
+
+    @Test
+    void reconcile_afterDrift_correctsCounts() {
+        tracker.reconcile();
+        tracker.recordCreated(VerificationStatus.PENDING);
+        tracker.recordRemoved(VerificationStatus.FAILED);
+        statistics.add(new Object[] {VerificationStatus.FAILED, 4L});
+
+        tracker.reconcile();
+
+        Map<String, Long> stats = tracker.snapshot();
+        assertEquals(0L, stats.get("pending"));
+        assertEquals(4L, stats.get("failed"));
+        assertEquals(4L, stats.get("total"));
+    }
+
+    @Test
+    void snapshot_negativeCount_isReportedAsZero() {
+        tracker.reconcile();
+
+        tracker.recordRemoved(VerificationStatus.EXPIRED);
+
+        assertEquals(0L, tracker.snapshot().get("expired"));
+    }
+
+    @Test
+    void recordTransitions_summaryTable_writesDeltaUpdates() {
+        ReflectionTestUtils.setField(tracker, "summaryTableEnabled", true);
+
+        tracker.recordTransitions(VerificationStatus.PENDING, VerificationStatus.EXPIRED, 5);
+        tracker.recordCreated(VerificationStatus.PENDING);
+
+        verify(statusCountRepository).addToCount(VerificationStatus.PENDING, -5);
+        verify(statusCountRepository).addToCount(VerificationStatus.EXPIRED, 5);
+        verify(statusCountRepository).addToCount(VerificationStatus.PENDING, 1);
+    }
+
+    @Test
+    void snapshot_summaryTable_readsTableRows() {
+        ReflectionTestUtils.setField(tracker, "summaryTableEnabled", true);
+        tracker.reconcile();
+        when(statusCountRepository.findAll()).thenReturn(List.of(
+            new VerificationStatusCount(VerificationStatus.PENDING, 7L),
+            new VerificationStatusCount(VerificationStatus.VERIFIED, 1L)));
+
+        Map<String, Long> stats = tracker.snapshot();
+
+        assertEquals(7L, stats.get("pending"));
+        assertEquals(1L, stats.get("verified"));
+        assertEquals(8L, stats.get("total"));
+        verify(statusCountRepository).saveAll(anyList());
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}